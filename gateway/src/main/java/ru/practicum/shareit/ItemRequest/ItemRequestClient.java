@@ -10,6 +10,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.ItemRequest.dto.ItemRequestDto;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -35,12 +36,15 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequestsOtherUsers(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all/?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getAllRequestsOtherUsers(long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after == null) {
+            return get("/all/?from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("after", after);
+        return get("/all/?from={from}&size={size}&after={after}", userId, parameters);
     }
 
     public ResponseEntity<Object> getItemRequestById(long userId, long requestId) {
@@ -38,10 +38,11 @@ public class ItemRequestController {
                                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
                                                          Integer from,
                                                          @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                         Integer size) {
+                                                         Integer size,
+                                                         @RequestParam(required = false) String after) {
         log.info("Получен Get-запрос списка запросов друших пользователей от пользователя с id {}," +
                 "c from {} и size {}", userId, from, size);
-        return itemRequestClient.getAllRequestsOtherUsers(userId, from, size);
+        return itemRequestClient.getAllRequestsOtherUsers(userId, from, size, after);
     }
 
     @GetMapping("/{requestId}")
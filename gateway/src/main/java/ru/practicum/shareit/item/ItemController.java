@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -10,8 +11,10 @@ import ru.practicum.shareit.Create;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -38,6 +41,29 @@ public class ItemController {
         return itemClient.addComment(userId, itemId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader("X-Sharer-User-Id") long userId,
+                                              @PathVariable long itemId,
+                                              @RequestParam(required = false) String after,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Получен запрос на получение комментариев к предмету {} после {}", itemId, after);
+        return itemClient.getComments(userId, itemId, after, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @PathVariable long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to) {
+        log.info("Получен запрос на получение занятости предмета {} с {} по {}", itemId, from, to);
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше конца");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") long userId, @RequestBody ItemDto itemDto,
                               @PathVariable long itemId) {
@@ -49,9 +75,10 @@ public class ItemController {
     public ResponseEntity<Object> searchItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @RequestParam String text,
                                     @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                    @RequestParam(required = false) String after) {
         log.info("Получен запрос на поиск предмета по тексту{}", text);
-        return itemClient.searchItem(userId, from, size, text);
+        return itemClient.searchItem(userId, from, size, text, after);
     }
 
     @GetMapping("/{itemId}")
@@ -68,4 +95,10 @@ public class ItemController {
         return itemClient.getUserItems(userId, from, size);
     }
 
+    @GetMapping(headers = "X-Sharer-User-Id=0")
+    public void exportItems(HttpServletResponse response) {
+        log.info("Получен запрос на выгрузку всех предметов");
+        itemClient.exportItems(response);
+    }
+
 }
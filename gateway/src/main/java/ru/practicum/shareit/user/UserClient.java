@@ -3,17 +3,29 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     @Autowired
     public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
@@ -37,6 +49,43 @@ public class UserClient extends BaseClient {
         return get("");
     }
 
+    public ResponseEntity<Object> getUsers(String after, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", size);
+        if (after == null) {
+            return get("?size={size}", null, parameters);
+        }
+        parameters.put("after", after);
+        return get("?after={after}&size={size}", null, parameters);
+    }
+
+    // Выгрузка NDJSON копируется в ответ по мере получения от сервера, без буферизации тела
+    public void exportUsers(String after, HttpServletResponse response) {
+        Map<String, Object> parameters = new HashMap<>();
+        String path = "";
+        if (after != null) {
+            parameters.put("after", after);
+            path = "?after={after}";
+        }
+        try {
+            rest.execute(path, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(NDJSON)),
+                    serverResponse -> {
+                        response.setStatus(serverResponse.getRawStatusCode());
+                        response.setContentType(NDJSON.toString());
+                        StreamUtils.copy(serverResponse.getBody(), response.getOutputStream());
+                        return null;
+                    }, parameters);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getRawStatusCode());
+            try {
+                StreamUtils.copy(e.getResponseBodyAsByteArray(), response.getOutputStream());
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+    }
+
     public ResponseEntity<Object> getUserById(long userId) {
         return get("/" + userId);
     }
@@ -10,6 +10,9 @@ import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Update;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Positive;
+
 @Controller
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -37,6 +40,19 @@ public class UserController {
         return userClient.getAllUsers();
     }
 
+    @GetMapping(params = "size")
+    public ResponseEntity<Object> getUsers(@RequestParam(required = false) String after,
+                                           @Positive @RequestParam Integer size) {
+        log.info("Получен запрос на получение {} пользователей после {}", size, after);
+        return userClient.getUsers(after, size);
+    }
+
+    @GetMapping(produces = "application/x-ndjson")
+    public void exportUsers(@RequestParam(required = false) String after, HttpServletResponse response) {
+        log.info("Получен запрос на выгрузку пользователей после {}", after);
+        userClient.exportUsers(after, response);
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<Object> getUserById(@PathVariable long userId) {
             log.info("Получен запрос на получение пользователя с id {}", userId);
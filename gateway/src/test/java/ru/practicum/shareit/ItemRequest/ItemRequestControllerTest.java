@@ -99,7 +99,7 @@ class ItemRequestControllerTest {
         itemRequestDto.setDescription("Test description");
         itemRequestDto.setId(1L);
         List<ItemRequestDto> result = List.of(itemRequestDto);
-        when(itemRequestClient.getAllRequestsOtherUsers(anyLong(), anyInt(), anyInt()))
+        when(itemRequestClient.getAllRequestsOtherUsers(anyLong(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.of(Optional.of(result)));
 
         mockMvc.perform(get("/requests/all", 42L)
@@ -17,6 +17,7 @@ import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
@@ -59,7 +60,7 @@ class BookingControllerTest {
         requestDto.setEnd(LocalDateTime.now().plusDays(5));
         List<BookItemRequestDto> result = List.of(requestDto);
 
-        when(bookingClient.getBookings(anyLong(), any(), anyInt(), anyInt()))
+        when(bookingClient.getBookings(anyLong(), any(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.of(Optional.of(result)));
         mockMvc.perform(get("/bookings", 42L)
                         .header("X-Sharer-User-Id", 1))
@@ -67,6 +68,16 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].itemId", is(requestDto.getItemId()), Long.class));
     }
 
+    @Test
+    void getBookingStats() throws Exception {
+        when(bookingClient.getBookingStats(anyLong()))
+                .thenReturn(ResponseEntity.of(Optional.of(Map.of("booker", Map.of("waiting", 1)))));
+        mockMvc.perform(get("/bookings/stats")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.waiting", is(1)));
+    }
+
     @Test
     void bookItem() throws Exception {
         requestDto = new BookItemRequestDto();
@@ -139,7 +150,7 @@ class BookingControllerTest {
         requestDto.setEnd(LocalDateTime.now().plusDays(5));
         List<BookItemRequestDto> result = List.of(requestDto);
 
-        when(bookingClient.getOwnerBookings(anyLong(), any(), anyInt(), anyInt()))
+        when(bookingClient.getOwnerBookings(anyLong(), any(), anyInt(), anyInt(), any()))
                 .thenReturn(ResponseEntity.of(Optional.of(result)));
         mockMvc.perform(get("/bookings/owner", 42L)
                         .header("X-Sharer-User-Id", 1))
@@ -17,13 +17,17 @@ import org.springframework.web.util.NestedServletException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -182,7 +186,7 @@ class ItemControllerTest {
         itemDto.setAvailable(true);
         List<ItemDto> result = List.of(itemDto);
 
-        when(itemClient.searchItem(anyLong(), anyInt(), anyInt(), anyString()))
+        when(itemClient.searchItem(anyLong(), anyInt(), anyInt(), anyString(), any()))
                 .thenReturn(ResponseEntity.of(Optional.of(result)));
 
         mockMvc.perform(get("/items/search?text=search", 42L)
@@ -221,6 +225,63 @@ class ItemControllerTest {
                 " must be greater than 0", thrown.getMessage());
     }
 
+    @Test
+    void getComments() throws Exception {
+        CommentDto commentDto = new CommentDto();
+        commentDto.setId(1L);
+        commentDto.setText("Test text");
+
+        when(itemClient.getComments(anyLong(), anyLong(), any(), anyInt()))
+                .thenReturn(ResponseEntity.of(Optional.of(List.of(commentDto))));
+
+        mockMvc.perform(get("/items/1/comments", 42L)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("after", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(commentDto.getId()), Long.class));
+    }
+
+    @Test
+    void getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        when(itemClient.getAvailability(1L, 1L, from, from.plusDays(1)))
+                .thenReturn(ResponseEntity.of(Optional.of(Map.of("itemId", 1))));
+
+        mockMvc.perform(get("/items/1/availability")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1)));
+    }
+
+    @Test
+    void getAvailabilityWhenPeriodIncorrect() {
+        NestedServletException thrown = Assertions
+                .assertThrows(NestedServletException.class, () ->
+                        mockMvc.perform(get("/items/1/availability")
+                                .header("X-Sharer-User-Id", 1)
+                                .param("from", "2030-01-02T00:00:00")
+                                .param("to", "2030-01-01T00:00:00")));
+
+        assertEquals("Начало периода должно быть раньше конца", thrown.getCause().getMessage());
+    }
+
+    @Test
+    void getCommentsWithWrongSizeValue() {
+        NestedServletException thrown = Assertions
+                .assertThrows(NestedServletException.class, () ->
+                        mockMvc.perform(get("/items/1/comments", 42L)
+                                        .header("X-Sharer-User-Id", 1)
+                                        .param("size", "0"))
+                                .andExpect(status().isBadRequest()));
+
+        assertEquals("Request processing failed; nested exception is " +
+                "javax.validation.ConstraintViolationException: getComments.size:" +
+                " must be greater than 0", thrown.getMessage());
+    }
+
     @Test
     void getItemById() throws Exception {
         itemDto = new ItemDto();
@@ -259,4 +320,14 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportItems() throws Exception {
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 0))
+                .andExpect(status().isOk());
+
+        verify(itemClient).exportItems(any());
+        verify(itemClient, never()).getUserItems(anyLong(), anyInt(), anyInt());
+    }
+}
@@ -20,6 +20,8 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -135,6 +137,32 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].id", is(userDto.getId()), Long.class));
     }
 
+    @Test
+    void getUsers() throws Exception {
+        userDto = new UserDto();
+        userDto.setName("Test");
+        userDto.setEmail("test");
+        userDto.setId(1L);
+
+        when(userClient.getUsers("MA", 1)).thenReturn(ResponseEntity.of(Optional.of(List.of(userDto))));
+
+        mockMvc.perform(get("/users")
+                        .param("after", "MA")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(userDto.getId()), Long.class));
+    }
+
+    @Test
+    void exportUsers() throws Exception {
+        mockMvc.perform(get("/users")
+                        .param("after", "MA")
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isOk());
+
+        verify(userClient).exportUsers(eq("MA"), any());
+    }
+
     @Test
     void getUserById() throws Exception {
         userDto = new UserDto();
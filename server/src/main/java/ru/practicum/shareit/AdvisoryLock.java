@@ -0,0 +1,55 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Сессионная рекомендательная блокировка PostgreSQL для фоновых задач, которые должен выполнять
+// только один экземпляр сервера. Блокировка держится на отдельном соединении всё время выполнения,
+// поэтому задача может делить работу на несколько транзакций. На других СУБД задача выполняется без неё.
+@Component
+public class AdvisoryLock {
+    private final DataSource dataSource;
+    private final boolean supported;
+
+    public AdvisoryLock(DataSource dataSource, @Value("${spring.sql.init.platform:all}") String platform) {
+        this.dataSource = dataSource;
+        this.supported = "postgresql".equals(platform);
+    }
+
+    // Выполняет действие, если блокировка свободна; возвращает false, если её держит другой экземпляр
+    public boolean runExclusively(long key, Runnable action) {
+        if (!supported) {
+            action.run();
+            return true;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            if (!call(connection, "select pg_try_advisory_lock(?)", key)) {
+                return false;
+            }
+            try {
+                action.run();
+            } finally {
+                call(connection, "select pg_advisory_unlock(?)", key);
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Не удалось получить блокировку " + key, e);
+        }
+    }
+
+    private static boolean call(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
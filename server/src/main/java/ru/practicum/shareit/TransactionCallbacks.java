@@ -0,0 +1,25 @@
+package ru.practicum.shareit;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionCallbacks {
+    //Подавление конструктора по умолчанию для достижения неинстанцируемости
+    private TransactionCallbacks() {
+        throw new AssertionError();
+    }
+
+    // Выполняет действие после фиксации текущей транзакции, а при её отсутствии - сразу
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
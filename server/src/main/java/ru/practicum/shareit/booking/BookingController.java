@@ -4,11 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.Service.BookingService;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 
-
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -45,9 +47,17 @@ public class BookingController {
                                                   @RequestParam(name = "from", defaultValue = "0")
                                                       Integer from,
                                                   @RequestParam(name = "size", defaultValue = "10")
-                                                  Integer size) {
+                                                  Integer size,
+                                                  @RequestParam(required = false) String after,
+                                                  HttpServletResponse response) {
         log.info("Get-запрос на получение cпиcка бронирований пользователя с id {} и статусом {}", userId, state);
-        return bookingService.getUserBookingList(userId, state, from, size);
+        return setNextCursor(bookingService.getUserBookingList(userId, state, from, size, after), size, response);
+    }
+
+    @GetMapping("/stats")
+    public BookingStatsDto getBookingStats(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Get-запрос на получение счётчиков бронирований пользователя с id {}", userId);
+        return bookingService.getBookingStats(userId);
     }
 
     @GetMapping("/owner")
@@ -56,9 +66,20 @@ public class BookingController {
                                                    @RequestParam(name = "from", defaultValue = "0")
                                                        Integer from,
                                                    @RequestParam(name = "size", defaultValue = "10")
-                                                   Integer size) {
+                                                   Integer size,
+                                                   @RequestParam(required = false) String after,
+                                                   HttpServletResponse response) {
         log.info("Get-запрос на получение cпиcка бронирований пользователя с id {} и статусом {}", userId, state);
-        return bookingService.getOwnerBookingList(userId, state, from, size);
+        return setNextCursor(bookingService.getOwnerBookingList(userId, state, from, size, after), size, response);
+    }
+
+    private List<BookingReturnDto> setNextCursor(List<BookingReturnDto> bookings, Integer size,
+                                                 HttpServletResponse response) {
+        if (bookings.size() == size) {
+            BookingReturnDto last = bookings.get(bookings.size() - 1);
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(last.getStart(), last.getId()).encode());
+        }
+        return bookings;
     }
 
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingListRepository {
+    List<BookingReturnDto> findBookings(BookingRole role, BookingState state, Long userId, LocalDateTime time,
+                                        PageCursor after, int from, int size);
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.booking.archive.BookingArchive;
+import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Списки бронирований для любой пары (роль, состояние) строятся из одних и тех же фрагментов JPQL.
+// Текст запроса для каждой комбинации постоянный, поэтому план запроса Hibernate
+// и подготовленное выражение драйвера переиспользуются между вызовами.
+public class BookingListRepositoryImpl implements BookingListRepository {
+    private static final Map<BookingRole, String> ROLE_CONDITIONS = new EnumMap<>(Map.of(
+            BookingRole.BOOKER, "where u.id = :userId ",
+            BookingRole.OWNER, "where i.userId = :userId "));
+    private static final Map<BookingState, String> STATE_CONDITIONS = new EnumMap<>(Map.of(
+            BookingState.ALL, "",
+            BookingState.CURRENT, "and b.start < :time and b.end > :time ",
+            BookingState.PAST, "and b.end < :time ",
+            BookingState.FUTURE, "and b.start > :time ",
+            BookingState.WAITING, "and b.status = :status ",
+            BookingState.REJECTED, "and b.status = :status "));
+    private static final String CURSOR_CONDITION =
+            "and (b.start < :cursorTime or (b.start = :cursorTime and b.id < :cursorId)) ";
+    // Текущие бронирования не бывают в архиве: условие по границе отсекает архивную секцию на PostgreSQL
+    private static final String ARCHIVE_CONDITION = "and b.start >= :boundary ";
+    private static final String ORDER = "order by b.start desc, b.id desc";
+
+    private final BookingArchive bookingArchive;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookingListRepositoryImpl(BookingArchive bookingArchive) {
+        this.bookingArchive = bookingArchive;
+    }
+
+    @Override
+    public List<BookingReturnDto> findBookings(BookingRole role, BookingState state, Long userId, LocalDateTime time,
+                                               PageCursor after, int from, int size) {
+        String stateCondition = STATE_CONDITIONS.get(state);
+        LocalDateTime boundary = state == BookingState.CURRENT ? bookingArchive.getBoundary() : null;
+        TypedQuery<BookingReturnDto> query = entityManager.createQuery(BookingRepository.RETURN_DTO_SELECT +
+                        ROLE_CONDITIONS.get(role) + stateCondition + (boundary == null ? "" : ARCHIVE_CONDITION) +
+                        (after == null ? "" : CURSOR_CONDITION) + ORDER, BookingReturnDto.class)
+                .setParameter("userId", userId)
+                .setFirstResult(from)
+                .setMaxResults(size);
+        if (stateCondition.contains(":time")) {
+            query.setParameter("time", time);
+        }
+        if (state == BookingState.WAITING) {
+            query.setParameter("status", BookingStatus.WAITING);
+        } else if (state == BookingState.REJECTED) {
+            query.setParameter("status", BookingStatus.REJECTED);
+        }
+        if (boundary != null) {
+            query.setParameter("boundary", boundary);
+        }
+        if (after != null) {
+            query.setParameter("cursorTime", after.getTime());
+            query.setParameter("cursorId", after.getId());
+        }
+        return query.getResultList();
+    }
+}
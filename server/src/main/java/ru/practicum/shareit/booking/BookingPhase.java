@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+// Положение бронирования относительно текущего момента, по нему ведутся счётчики CURRENT и FUTURE
+public enum BookingPhase {
+    FUTURE,
+    CURRENT,
+    PAST;
+
+    public static BookingPhase of(LocalDateTime start, LocalDateTime end, LocalDateTime time) {
+        if (start == null || end == null) {
+            return null;
+        }
+        if (!end.isAfter(time)) {
+            return PAST;
+        }
+        if (!start.isAfter(time)) {
+            return CURRENT;
+        }
+        return FUTURE;
+    }
+}
@@ -1,48 +1,94 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.stats.BookingPhaseDto;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "select b from Booking as b where b.booker.id = ?1 order by b.start desc")
-    List<Booking> findBookingsByBooker(Long bookerId, Pageable pageable);
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    @Query(value = "select b from Booking as b where b.booker.id = ?1 and b.start > ?2 order by b.start desc")
-    List<Booking> findFutureBookingsByBooker(Long bookerId, LocalDateTime dateTime, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingListRepository {
+    // Списки бронирований читаются проекцией без загрузки сущностей, см. BookingListRepositoryImpl
+    String RETURN_DTO_SELECT = "select new ru.practicum.shareit.booking.dto.BookingReturnDto(b.id, b.status, " +
+            "u.id, u.name, u.email, i.id, i.name, i.description, i.available, r.id, b.start, b.end) " +
+            "from Booking as b join b.booker as u join b.item as i left join i.itemRequest as r ";
 
-    @Query(value = "select b from Booking as b where b.item.id = ?1 order by b.start desc")
-    List<Booking> findBookingsByItem(Long itemId, Pageable pageable);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
 
-    @Query(value = "select b from Booking as b where b.item.id = ?1 and b.start > ?2 order by b.start desc")
-    List<Booking> findFutureBookingsByItem(Long bookerId, LocalDateTime dateTime, Pageable pageable);
+    // Связанные предмет и автор бронирования загружаются отдельно по первичному ключу,
+    // чтобы блокировка не распространялась на их строки
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select b from Booking as b where b.id = ?1")
+    Optional<Booking> findBookingForUpdate(Long bookingId);
 
-    @Query(value = "select b from Booking as b where b.item.id = ?1 order by b.start asc")
-    List<Booking> findBookingsByItemAsc(Long itemId);
+    @Query(value = "select count(b) > 0 from Booking as b " +
+            "where b.item.id = ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3")
+    boolean existsOverlappingBooking(Long itemId, BookingStatus status, LocalDateTime start, LocalDateTime end);
 
-    @Query(value = "select b from Booking as b where b.item.id = ?1 and b.status = ?2 order by b.start desc")
-    List<Booking> findBookingsByItemAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.status, b.booker.id, b.item.id, " +
+            "b.start, b.end, b.item.name) from Booking as b where b.item.id in ?1 and (" +
+            "b.start = (select max(l.start) from Booking as l where l.item.id = b.item.id and l.start <= ?2) or " +
+            "b.start = (select min(n.start) from Booking as n where n.item.id = b.item.id and n.start > ?2)) " +
+            "order by b.start asc, b.id asc")
+    List<BookingDto> findLastAndNextBookingsByItems(Collection<Long> itemIds, LocalDateTime time);
 
-    @Query(value = "select b from Booking as b where b.booker.id = ?1 and b.status = ?2 order by b.start desc")
-    List<Booking> findBookingsByBookerAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.status, b.booker.id, b.item.id, " +
+            "b.start, b.end, b.item.name) from Booking as b where b.item.id in ?1")
+    List<BookingDto> findBookingDtosByItems(Collection<Long> itemIds);
 
-    @Query(value = "select b from Booking as b " +
-            "where b.booker.id =?1 and b.item.id = ?2 and b.status <> ?3 order by b.start desc")
-    List<Booking> findBookingsByBookerAndItemAndStatusNot(Long userId, Long itemId, BookingStatus status);
+    // Использует индекс (item_id, status, start_time); отменённые и отклонённые бронирования не учитываются
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.status, b.booker.id, b.item.id, " +
+            "b.start, b.end, b.item.name) from Booking as b where b.item.id = ?1 and b.status in ?2 " +
+            "and b.start < ?4 and b.end > ?3 order by b.start asc, b.id asc")
+    List<BookingDto> findItemBookingsBetween(Long itemId, Collection<BookingStatus> statuses,
+                                             LocalDateTime from, LocalDateTime to);
 
-    @Query(value = "select b from Booking as b WHERE b.start < ?2 and b.end > ?2 and b.booker.id = ?1 ORDER BY b.start")
-    List<Booking> findCurrentBookingForUser(Long userId, LocalDateTime time, Pageable pageable);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.status, b.booker.id, b.item.id, " +
+            "b.start, b.end, b.item.name) from Booking as b")
+    Stream<BookingDto> streamAllBookingDtos();
 
-    @Query(value = "select b from Booking as b WHERE b.start < ?2 and b.end > ?2 and b.item.id = ?1 ORDER BY b.start")
-    List<Booking> findCurrentBookingForOwner(Long itemId, LocalDateTime time, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.stats.BookingPhaseDto(b.id, b.status, b.booker.id, " +
+            "b.item.userId, b.statsPhase, b.start, b.end) from Booking as b where b.statsPhase = ?1 and b.start <= ?2 order by b.id")
+    List<BookingPhaseDto> findStartedBookings(BookingPhase phase, LocalDateTime time, Pageable pageable);
 
-    @Query(value = "select b from Booking as b WHERE b.end < ?2 and b.booker.id = ?1 ORDER BY b.start")
-    List<Booking> findPastBookingForUser(Long userId, LocalDateTime time, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.booking.stats.BookingPhaseDto(b.id, b.status, b.booker.id, " +
+            "b.item.userId, b.statsPhase, b.start, b.end) from Booking as b where b.statsPhase = ?1 and b.end <= ?2 order by b.id")
+    List<BookingPhaseDto> findEndedBookings(BookingPhase phase, LocalDateTime time, Pageable pageable);
 
-    @Query(value = "select b from Booking as b WHERE  b.end < ?2 and b.item.id = ?1 ORDER BY b.start")
-    List<Booking> findPastBookingForOwner(Long itemId, LocalDateTime time, Pageable pageable);
+    @Modifying
+    @Query(value = "update Booking as b set b.statsPhase = ?3 where b.id = ?1 and b.statsPhase = ?2")
+    int updateStatsPhase(Long bookingId, BookingPhase phase, BookingPhase nextPhase);
+
+    // Самое раннее окончание бронирований пользователя на предмет; читается из индекса
+    // (booker_id, item_id, status, end_time) без загрузки бронирований
+    @Query(value = "select min(b.end) from Booking as b where b.booker.id = ?1 and b.item.id = ?2 and b.status in ?3")
+    Optional<LocalDateTime> findFirstBookingEnd(Long userId, Long itemId, Collection<BookingStatus> statuses);
+
+    @Query(value = "select b from Booking as b join fetch b.item join fetch b.booker " +
+            "where b.status = ?1 and b.start < ?2 order by b.id")
+    List<Booking> findStaleBookings(BookingStatus status, LocalDateTime time, Pageable pageable);
+
+    // Условие на прежний статус не даёт перезаписать бронирование, изменённое после выборки
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Booking as b set b.status = ?3 where b.id in ?1 and b.status = ?2")
+    int updateStatuses(Collection<Long> bookingIds, BookingStatus status, BookingStatus nextStatus);
+
+    @Query(value = "select b.id from Booking as b where b.id in ?1 and b.status = ?2")
+    List<Long> findIdsByStatus(Collection<Long> bookingIds, BookingStatus status);
 
 }
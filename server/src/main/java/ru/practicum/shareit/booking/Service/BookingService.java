@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.Service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 
 import java.util.List;
 
@@ -12,8 +13,10 @@ public interface BookingService {
 
     BookingReturnDto getBooking(Long bookingId, Long userId);
 
-    List<BookingReturnDto> getUserBookingList(Long userId, String state, Integer from, Integer size);
+    List<BookingReturnDto> getUserBookingList(Long userId, String state, Integer from, Integer size, String after);
 
-    List<BookingReturnDto> getOwnerBookingList(Long userId, String state, Integer from, Integer size);
+    List<BookingReturnDto> getOwnerBookingList(Long userId, String state, Integer from, Integer size, String after);
+
+    BookingStatsDto getBookingStats(Long userId);
 
 }
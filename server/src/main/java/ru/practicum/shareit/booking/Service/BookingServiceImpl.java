@@ -1,64 +1,84 @@
 package ru.practicum.shareit.booking.Service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.FromSizeRequest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingRole;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.outbox.BookingEventType;
+import ru.practicum.shareit.booking.outbox.BookingOutbox;
+import ru.practicum.shareit.booking.stats.BookingStatsCounter;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
 import ru.practicum.shareit.exceptions.EntityNotAvailableException;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
-import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.cache.CommentEligibilityCache;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserResolver;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
-    private final ItemService itemService;
-    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final UserResolver userResolver;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final BookingOutbox bookingOutbox;
+    private final BookingStatsCounter bookingStatsCounter;
+    private final CommentEligibilityCache commentEligibilityCache;
 
     @Override
     public BookingReturnDto addBooking(BookingDto bookingDto, Long userId) {
-        Item item = itemService.getItemById(bookingDto.getItemId());
+        Optional<Item> optionalItem = itemRepository.findItemForUpdate(bookingDto.getItemId());
+        if (optionalItem.isEmpty()) {
+            throw new EntityNotFoundException("Предмет не найден");
+        }
+        Item item = optionalItem.get();
         if (!item.getAvailable()) {
             throw new EntityNotAvailableException("Предмет недоступен");
         }
         if (item.getUserId().equals(userId)) {
             throw new EntityNotFoundException("Невозможно забронировать свой предмет");
         }
-        UserDto booker = userService.getUserById(userId);
+        UserDto booker = userResolver.getUser(userId);
+        checkNoApprovedOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd(),
+                "Предмет уже забронирован на эти даты");
         Booking booking = BookingMapper.toBooking(bookingDto);
         booking.setItem(item);
         booking.setBooker(UserMapper.toUser(booker));
-        userService.getUserById(userId);
         booking.setStatus(BookingStatus.WAITING);
-        return BookingMapper.toBookingReturnDto(bookingRepository.save(booking));
+        booking.setStatsPhase(BookingPhase.of(booking.getStart(), booking.getEnd(), LocalDateTime.now()));
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingStatsCounter.created(savedBooking);
+        bookingOutbox.add(BookingEventType.CREATED, savedBooking);
+        bookingTimelineIndex.update(BookingMapper.toBookingDto(savedBooking));
+        return BookingMapper.toBookingReturnDto(savedBooking);
     }
 
     @Override
     public BookingReturnDto patchBooking(Long bookingId, Long userId, boolean approved) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
+        Optional<Booking> optionalBooking = bookingRepository.findBookingForUpdate(bookingId);
         if (optionalBooking.isEmpty()) {
             throw new EntityNotFoundException("Бронирование не найдено");
         }
         Booking booking = optionalBooking.get();
+        BookingStatus previousStatus = booking.getStatus();
         if (approved) {
             if (!booking.getItem().getUserId().equals(userId)) {
                 throw new EntityNotFoundException("статус бронирования может менять только владелец вещи");
@@ -66,17 +86,36 @@ public class BookingServiceImpl implements BookingService {
             if (booking.getStatus().equals(BookingStatus.APPROVED)) {
                 throw new IllegalStateException("Бронирование уже подтверждено");
             }
+            // Отклонённое или отменённое по истечении срока бронирование подтвердить нельзя
+            if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                throw new IllegalStateException("Подтвердить можно только ожидающее бронирование");
+            }
+            // Подтверждения бронирований одного предмета выполняются по очереди
+            itemRepository.findItemForUpdate(booking.getItem().getId());
+            checkNoApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd(),
+                    "Бронирование пересекается с подтверждённым бронированием");
             booking.setStatus(BookingStatus.APPROVED);
         }
         if (booking.getItem().getUserId().equals(userId) && !approved) {
+            if (booking.getStatus().equals(BookingStatus.CANCELED)) {
+                throw new IllegalStateException("Бронирование отменено");
+            }
             booking.setStatus(BookingStatus.REJECTED);
         }
-        return BookingMapper.toBookingReturnDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        if (savedBooking.getStatus() != previousStatus) {
+            bookingStatsCounter.statusChanged(savedBooking, previousStatus);
+            commentEligibilityCache.evict(savedBooking.getBooker().getId(), savedBooking.getItem().getId());
+            bookingOutbox.add(savedBooking.getStatus() == BookingStatus.APPROVED
+                    ? BookingEventType.APPROVED : BookingEventType.REJECTED, savedBooking);
+        }
+        bookingTimelineIndex.update(BookingMapper.toBookingDto(savedBooking));
+        return BookingMapper.toBookingReturnDto(savedBooking);
     }
 
     @Override
     public BookingReturnDto getBooking(Long bookingId, Long userId) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
+        Optional<Booking> optionalBooking = bookingRepository.findWithItemAndBookerById(bookingId);
         if (optionalBooking.isEmpty()) {
             throw new EntityNotFoundException("Бронирование не найдено");
         }
@@ -89,81 +128,38 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingReturnDto> getUserBookingList(Long userId, String state, Integer from, Integer size) {
-        userService.getUserById(userId);
-        Pageable pageable = FromSizeRequest.of(from, size);
-        switch (state) {
-            case "FUTURE":
-                return bookingRepository.findFutureBookingsByBooker(userId, LocalDateTime.now(), pageable)
-                        .stream()
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "ALL":
-                return bookingRepository.findBookingsByBooker(userId, pageable).stream()
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "WAITING":
-                return bookingRepository
-                        .findBookingsByBookerAndStatus(userId, BookingStatus.WAITING, pageable).stream()
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "REJECTED":
-                return bookingRepository
-                        .findBookingsByBookerAndStatus(userId, BookingStatus.REJECTED, pageable).stream()
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "CURRENT":
-                return bookingRepository.findCurrentBookingForUser(userId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "PAST":
-                return bookingRepository.findPastBookingForUser(userId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            default:
-                throw new EntityNotAvailableException("Unknown state: UNSUPPORTED_STATUS");
-        }
+    public List<BookingReturnDto> getUserBookingList(Long userId, String state, Integer from, Integer size,
+                                                     String after) {
+        return getBookingList(BookingRole.BOOKER, userId, state, from, size, after);
     }
 
     @Override
-    public List<BookingReturnDto> getOwnerBookingList(Long userId, String state, Integer from, Integer size) {
-        userService.getUserById(userId);
-        Pageable pageable = FromSizeRequest.of(from, size);
-        Stream<Long> itemsId = itemService.getItems(userId, 0, Integer.MAX_VALUE).map(ItemDto::getId);
-        switch (state) {
-            case "FUTURE":
-                return itemsId.flatMap((id) ->
-                                bookingRepository.findFutureBookingsByItem(
-                                        id, LocalDateTime.now(), pageable).stream())
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
+    public List<BookingReturnDto> getOwnerBookingList(Long userId, String state, Integer from, Integer size,
+                                                      String after) {
+        return getBookingList(BookingRole.OWNER, userId, state, from, size, after);
+    }
+
+    // При переданном курсоре страница начинается сразу после него, from не учитывается
+    private List<BookingReturnDto> getBookingList(BookingRole role, Long userId, String state,
+                                                  Integer from, Integer size, String after) {
+        userResolver.checkExists(userId);
+        BookingState bookingState = BookingState.from(state)
+                .orElseThrow(() -> new EntityNotAvailableException("Unknown state: UNSUPPORTED_STATUS"));
+        PageCursor cursor = PageCursor.parseTimed(after);
+        return bookingRepository.findBookings(role, bookingState, userId, LocalDateTime.now(), cursor,
+                cursor == null ? from : 0, size);
+    }
+
+    @Override
+    public BookingStatsDto getBookingStats(Long userId) {
+        userResolver.checkExists(userId);
+        return bookingStatsCounter.getStats(userId);
+    }
 
-            case "ALL":
-                return itemsId.flatMap((id) -> bookingRepository.findBookingsByItem(id, pageable).stream())
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "WAITING":
-                return itemsId.flatMap((id) -> bookingRepository
-                                .findBookingsByItemAndStatus(id, BookingStatus.WAITING, pageable).stream())
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "REJECTED":
-                return itemsId.flatMap((id) -> bookingRepository
-                                .findBookingsByItemAndStatus(id, BookingStatus.REJECTED, pageable).stream())
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "CURRENT":
-                return itemsId.flatMap((id) -> bookingRepository
-                                .findCurrentBookingForOwner(id, LocalDateTime.now(), pageable).stream())
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            case "PAST":
-                return itemsId.flatMap((id) -> bookingRepository
-                                .findPastBookingForOwner(id, LocalDateTime.now(), pageable).stream())
-                        .map(BookingMapper::toBookingReturnDto)
-                        .collect(Collectors.toList());
-            default:
-                throw new EntityNotAvailableException("Unknown state: UNSUPPORTED_STATUS");
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end, String message) {
+        if (start != null && end != null
+                && bookingRepository.existsOverlappingBooking(itemId, BookingStatus.APPROVED, start, end)) {
+            throw new EntityNotAvailableException(message);
         }
     }
 }
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Обслуживает секции bookings на PostgreSQL: заранее создаёт помесячные секции и переносит в архив
+// месяцы, все бронирования которых завершились раньше срока хранения. Месяцы переносятся по порядку,
+// первый месяц с незавершённым бронированием останавливает перенос. Каждый шаг - отдельная короткая
+// транзакция, так как на время шага таблица бронирований блокируется целиком. Нужен ли шаг, решается
+// без блокировки, поэтому запуск, которому нечего создавать и переносить, таблицу не блокирует.
+@Component
+@Slf4j
+public class BookingArchive {
+    private final BookingPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int monthsAhead;
+    // Начало первой помесячной секции. Все бронирования, начавшиеся раньше, завершены
+    private volatile LocalDateTime boundary;
+
+    public BookingArchive(BookingPartitionRepository partitionRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${shareit.booking-archive.enabled:true}") boolean enabled,
+                          @Value("${shareit.booking-archive.retention:P180D}") Duration retention,
+                          @Value("${shareit.booking-archive.months-ahead:3}") int monthsAhead,
+                          @Value("${spring.sql.init.platform:all}") String platform) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled && "postgresql".equals(platform);
+        this.retention = retention;
+        this.monthsAhead = monthsAhead;
+    }
+
+    // Граница архива для отсечения архивной секции в запросах; null, если таблица не секционирована
+    public LocalDateTime getBoundary() {
+        return boundary;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-archive.interval:PT1H}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime time = LocalDateTime.now();
+            createPartitions(YearMonth.from(time).plusMonths(monthsAhead));
+            LocalDateTime cutoff = time.minus(retention);
+            Optional<YearMonth> month;
+            while ((month = findArchivableMonth(cutoff)).isPresent()) {
+                YearMonth candidate = month.get();
+                if (!Boolean.TRUE.equals(inLockedTransaction(() -> archivePartition(candidate, cutoff)))) {
+                    break;
+                }
+                boundary = partitionRepository.findArchiveBoundary().orElse(null);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обслужить секции бронирований", e);
+        } finally {
+            boundary = partitionRepository.findArchiveBoundary().orElse(null);
+        }
+    }
+
+    private void createPartitions(YearMonth last) {
+        LocalDateTime archived = partitionRepository.findArchiveBoundary()
+                .orElseThrow(() -> new IllegalStateException("Таблица бронирований не секционирована"));
+        // Недостающие месяцы определяются без блокировки
+        List<YearMonth> existing = partitionRepository.findMonthPartitions();
+        for (YearMonth month = YearMonth.from(archived); !month.isAfter(last); month = month.plusMonths(1)) {
+            YearMonth partition = month;
+            if (!existing.contains(partition)) {
+                // Секцию мог создать другой экземпляр, пока шло ожидание блокировки
+                inLockedTransaction(() -> {
+                    if (!partitionRepository.findMonthPartitions().contains(partition)) {
+                        partitionRepository.createMonthPartition(partition);
+                        log.info("Создана секция бронирований за {}", partition);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    // Первый месяц, который можно перенести в архив: закончился раньше срока хранения
+    // и не содержит незавершённых бронирований
+    private Optional<YearMonth> findArchivableMonth(LocalDateTime cutoff) {
+        List<YearMonth> months = partitionRepository.findMonthPartitions();
+        if (months.isEmpty()) {
+            return Optional.empty();
+        }
+        YearMonth month = months.get(0);
+        if (month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff)
+                || partitionRepository.hasUnfinishedBookings(month, cutoff)) {
+            return Optional.empty();
+        }
+        return Optional.of(month);
+    }
+
+    // Под блокировкой проверка повторяется: пока блокировка ожидалась, месяц могли перенести или изменить
+    private boolean archivePartition(YearMonth month, LocalDateTime cutoff) {
+        if (!findArchivableMonth(cutoff).filter(month::equals).isPresent()) {
+            return false;
+        }
+        partitionRepository.archiveMonthPartition(month, cutoff);
+        log.info("Бронирования за {} перенесены в архив", month);
+        return true;
+    }
+
+    private <T> T inLockedTransaction(Supplier<T> step) {
+        return transactionTemplate.execute(status -> {
+            partitionRepository.lockBookings();
+            return step.get();
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Секции таблицы bookings на PostgreSQL: bookings_archive (от MINVALUE до границы архива, сам секционирован
+// по перенесённым месяцам), помесячные bookings_pYYYYMM и bookings_default для бронирований за пределами
+// созданных месяцев.
+// Имена и границы секций строятся только из YearMonth, поэтому подставляются в DDL напрямую.
+@Repository
+@RequiredArgsConstructor
+public class BookingPartitionRepository {
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'bookings_p'yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Обслуживание блокирует родительскую таблицу до секций, в том же порядке, что и запросы,
+    // поэтому не образует с ними взаимной блокировки. Блокировка также упорядочивает экземпляры сервера.
+    public void lockBookings() {
+        jdbcTemplate.execute("set local lock_timeout = '5s'");
+        jdbcTemplate.execute("lock table bookings in access exclusive mode");
+    }
+
+    public Optional<LocalDateTime> findArchiveBoundary() {
+        List<String> bounds = jdbcTemplate.queryForList("select pg_get_expr(c.relpartbound, c.oid) from pg_class c " +
+                "where c.relname = 'bookings_archive' and c.relispartition", String.class);
+        if (bounds.isEmpty()) {
+            return Optional.empty();
+        }
+        Matcher matcher = UPPER_BOUND.matcher(bounds.get(0));
+        if (!matcher.find()) {
+            throw new IllegalStateException("Не удалось определить границу архива бронирований: " + bounds.get(0));
+        }
+        return Optional.of(LocalDateTime.parse(matcher.group(1), BOUND));
+    }
+
+    public List<YearMonth> findMonthPartitions() {
+        return jdbcTemplate.queryForList("select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent " +
+                        "where p.relname = 'bookings' and c.relname ~ '^bookings_p[0-9]{6}$' order by c.relname",
+                        String.class).stream()
+                .map(name -> YearMonth.parse(name, PARTITION_NAME))
+                .collect(Collectors.toList());
+    }
+
+    // Секция собирается отдельной таблицей и присоединяется после переноса её строк из bookings_default.
+    // Проверка диапазона избавляет от чтения строк при присоединении секции к bookings и затем к архиву.
+    // Ограничение исключения действует только внутри секции, см. schema-postgresql.sql.
+    public void createMonthPartition(YearMonth month) {
+        String name = month.format(PARTITION_NAME);
+        String from = bound(month);
+        String to = bound(month.plusMonths(1));
+        jdbcTemplate.execute("create table " + name + " (like bookings including defaults including constraints)");
+        jdbcTemplate.execute("alter table " + name + " add constraint ck_" + name + "_range " +
+                "check (start_time >= '" + from + "' and start_time < '" + to + "')");
+        jdbcTemplate.execute("alter table " + name + " add constraint ex_" + name + "_approved_overlap " +
+                "exclude using gist (item_id with =, tsrange(start_time, end_time) with &&) " +
+                "where (status = 'APPROVED')");
+        jdbcTemplate.execute("with moved as (delete from bookings_default " +
+                "where start_time >= '" + from + "' and start_time < '" + to + "' returning *) " +
+                "insert into " + name + " select * from moved");
+        jdbcTemplate.execute("alter table bookings attach partition " + name +
+                " for values from ('" + from + "') to ('" + to + "')");
+    }
+
+    public boolean hasUnfinishedBookings(YearMonth month, LocalDateTime cutoff) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select exists (select 1 from " +
+                month.format(PARTITION_NAME) + " where end_time is null or end_time >= ?)", Boolean.class, cutoff));
+    }
+
+    // Месяц получает проверку окончания и становится секцией архива, после чего архив переприсоединяется
+    // с расширенной границей. Читаются только строки этого месяца: новая граница архива следует из проверок
+    // диапазона его секций. Проверка окончания не даёт записать в архив незавершённое бронирование.
+    public void archiveMonthPartition(YearMonth month, LocalDateTime cutoff) {
+        String name = month.format(PARTITION_NAME);
+        String from = bound(month);
+        String to = bound(month.plusMonths(1));
+        jdbcTemplate.execute("alter table " + name + " add constraint ck_" + name + "_ended " +
+                "check (end_time < '" + cutoff.withNano(0).format(BOUND) + "')");
+        jdbcTemplate.execute("alter table bookings detach partition bookings_archive");
+        jdbcTemplate.execute("alter table bookings detach partition " + name);
+        jdbcTemplate.execute("alter table bookings_archive attach partition " + name +
+                " for values from ('" + from + "') to ('" + to + "')");
+        jdbcTemplate.execute("alter table bookings attach partition bookings_archive " +
+                "for values from (minvalue) to ('" + to + "')");
+    }
+
+    private static String bound(YearMonth month) {
+        return month.atDay(1).atStartOfDay().format(BOUND);
+    }
+}
@@ -19,4 +19,19 @@ public class BookingReturnDto {
     private ItemDto item;
     private LocalDateTime start;
     private LocalDateTime end;
+
+    // Конструктор для проекций JPQL: бронирование, автор и предмет выбираются одной плоской строкой
+    public BookingReturnDto(Long id, BookingStatus status, Long bookerId, String bookerName, String bookerEmail,
+                            Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                            Long itemRequestId, LocalDateTime start, LocalDateTime end) {
+        this.id = id;
+        this.status = status;
+        this.booker = new UserDto();
+        this.booker.setId(bookerId);
+        this.booker.setName(bookerName);
+        this.booker.setEmail(bookerEmail);
+        this.item = new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemRequestId);
+        this.start = start;
+        this.end = end;
+    }
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookingEvent {
+    private Long id;
+    private BookingEventType type;
+    private BookingDto booking;
+    private LocalDateTime created;
+}
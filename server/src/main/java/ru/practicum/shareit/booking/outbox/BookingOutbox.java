@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+// Запись событий бронирований в таблицу outbox в той же транзакции, что и само изменение
+@Component
+@RequiredArgsConstructor
+public class BookingOutbox {
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void add(BookingEventType type, Booking booking) {
+        OutboxMessage message = new OutboxMessage();
+        message.setEventType(type);
+        message.setAggregateId(booking.getId());
+        message.setPayload(write(BookingMapper.toBookingDto(booking)));
+        message.setCreated(LocalDateTime.now());
+        outboxRepository.save(message);
+    }
+
+    public BookingDto read(OutboxMessage message) {
+        try {
+            return objectMapper.readValue(message.getPayload(), BookingDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Некорректное событие в outbox: " + message.getId(), e);
+        }
+    }
+
+    private String write(BookingDto bookingDto) {
+        try {
+            return objectMapper.writeValueAsString(bookingDto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить событие бронирования " + bookingDto.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Фоновая публикация событий из outbox в шину событий приложения пакетами.
+// События публикуются в транзакции выборки: если слушатель упал, пакет останется в outbox
+// и будет опубликован повторно, поэтому слушатели должны быть идемпотентными.
+// Пакет публикуется до первого упавшего события. Каждая неудача увеличивает счётчик попыток события,
+// после max-attempts попыток оно переносится в outbox_dead_letter и больше не задерживает очередь.
+@Component
+@Slf4j
+public class BookingOutboxPublisher {
+    private final OutboxRepository outboxRepository;
+    private final BookingOutbox bookingOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter published;
+    private final Counter deadLettered;
+    private final Timer lag;
+
+    public BookingOutboxPublisher(OutboxRepository outboxRepository,
+                                  BookingOutbox bookingOutbox,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${shareit.outbox.enabled:true}") boolean enabled,
+                                  @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                                  @Value("${shareit.outbox.max-attempts:5}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.bookingOutbox = bookingOutbox;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.published = meterRegistry.counter("booking.outbox.published");
+        this.deadLettered = meterRegistry.counter("booking.outbox.dead-lettered");
+        this.lag = meterRegistry.timer("booking.outbox.lag");
+        Gauge.builder("booking.outbox.pending", pending, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.drain-interval:PT1S}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int count;
+            do {
+                count = publishBatch();
+            } while (count == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось опубликовать события бронирований", e);
+        } finally {
+            pending.set(outboxRepository.count());
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxMessage> failed = new ArrayList<>(1);
+        Integer count;
+        try {
+            count = transactionTemplate.execute(status -> publishUntilFailure(failed));
+        } catch (TransactionException e) {
+            // Слушатель пометил транзакцию для отката: опубликованные события останутся в outbox
+            if (failed.isEmpty()) {
+                throw e;
+            }
+            count = 0;
+        }
+        int size = count == null ? 0 : count;
+        published.increment(size);
+        if (!failed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> recordFailure(failed.get(0).getId()));
+            return 0;
+        }
+        return size;
+    }
+
+    private int publishUntilFailure(List<OutboxMessage> failed) {
+        List<OutboxMessage> batch = outboxRepository.findBatchForUpdate(batchSize);
+        List<OutboxMessage> done = new ArrayList<>(batch.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage message : batch) {
+            try {
+                eventPublisher.publishEvent(new BookingEvent(message.getId(), message.getEventType(),
+                        bookingOutbox.read(message), message.getCreated()));
+            } catch (RuntimeException e) {
+                log.warn("Не удалось опубликовать событие {} из outbox, попытка {}", message.getId(),
+                        message.getAttempts() + 1, e);
+                failed.add(message);
+                break;
+            }
+            lag.record(Duration.between(message.getCreated(), now));
+            done.add(message);
+        }
+        outboxRepository.deleteAllInBatch(done);
+        return done.size();
+    }
+
+    private void recordFailure(Long id) {
+        // Событие могло быть удалено другим экземпляром, пока шёл откат
+        outboxRepository.findById(id).ifPresent(message -> {
+            message.setAttempts(message.getAttempts() + 1);
+            if (message.getAttempts() < maxAttempts) {
+                return;
+            }
+            outboxRepository.copyToDeadLetter(message.getId(), message.getAttempts(), LocalDateTime.now());
+            outboxRepository.delete(message);
+            deadLettered.increment();
+            log.error("Событие {} перенесено в outbox_dead_letter после {} попыток", message.getId(),
+                    message.getAttempts());
+        });
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.outbox;
+
+import java.util.List;
+
+public interface OutboxBatchRepository {
+    List<OutboxMessage> findBatchForUpdate(int size);
+}
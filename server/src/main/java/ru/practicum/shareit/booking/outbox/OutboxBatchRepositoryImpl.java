@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.hibernate.LockOptions;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+// Пакет событий блокируется для публикации. С SKIP LOCKED несколько экземпляров сервера
+// разбирают outbox параллельно, не ожидая друг друга; H2 такой режим не поддерживает.
+public class OutboxBatchRepositoryImpl implements OutboxBatchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${shareit.outbox.skip-locked:true}")
+    private boolean skipLocked;
+
+    @Override
+    public List<OutboxMessage> findBatchForUpdate(int size) {
+        return entityManager.createQuery("select m from OutboxMessage as m order by m.id asc", OutboxMessage.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout",
+                        skipLocked ? LockOptions.SKIP_LOCKED : LockOptions.WAIT_FOREVER)
+                .setMaxResults(size)
+                .getResultList();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Table(name = "outbox")
+@EqualsAndHashCode
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "event_type")
+    private BookingEventType eventType;
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+    @Column(name = "payload")
+    private String payload;
+    @Column(name = "created")
+    private LocalDateTime created;
+    @Column(name = "attempts")
+    private int attempts;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long>, OutboxBatchRepository {
+    @Modifying
+    @Query(value = "insert into outbox_dead_letter (id, event_type, aggregate_id, payload, created, attempts, failed) " +
+            "select id, event_type, aggregate_id, payload, created, ?2, ?3 from outbox where id = ?1",
+            nativeQuery = true)
+    void copyToDeadLetter(Long id, int attempts, LocalDateTime failed);
+}
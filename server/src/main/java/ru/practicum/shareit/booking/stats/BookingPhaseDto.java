@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookingPhaseDto {
+    private Long id;
+    private BookingStatus status;
+    private Long bookerId;
+    private Long ownerId;
+    private BookingPhase phase;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
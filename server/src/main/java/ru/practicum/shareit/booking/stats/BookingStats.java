@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.stats;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Table(name = "booking_stats")
+@EqualsAndHashCode
+public class BookingStats {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(name = "booker_waiting")
+    private long bookerWaiting;
+    @Column(name = "booker_approved")
+    private long bookerApproved;
+    @Column(name = "booker_rejected")
+    private long bookerRejected;
+    @Column(name = "booker_current")
+    private long bookerCurrent;
+    @Column(name = "booker_future")
+    private long bookerFuture;
+    @Column(name = "owner_waiting")
+    private long ownerWaiting;
+    @Column(name = "owner_approved")
+    private long ownerApproved;
+    @Column(name = "owner_rejected")
+    private long ownerRejected;
+    @Column(name = "owner_current")
+    private long ownerCurrent;
+    @Column(name = "owner_future")
+    private long ownerFuture;
+
+    public BookingStats(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+// Счётчики бронирований по статусам и фазам для бронирующего и владельца предмета.
+// Изменяются в транзакции изменения бронирования, смена фаз со временем - в BookingStatsTicker.
+@Component
+@RequiredArgsConstructor
+public class BookingStatsCounter {
+    private final BookingStatsRepository bookingStatsRepository;
+
+    public void created(Booking booking) {
+        BookingCountsDto delta = new BookingCountsDto();
+        addStatus(delta, booking.getStatus(), 1);
+        addPhase(delta, booking.getStatsPhase(), 1);
+        add(booking.getBooker().getId(), booking.getItem().getUserId(), delta);
+    }
+
+    // Счётчики для пакета новых бронирований: одно обновление строки на пользователя
+    public void createdAll(Collection<BookingPhaseDto> bookings) {
+        Map<Long, BookingCountsDto> bookerDeltas = new HashMap<>();
+        Map<Long, BookingCountsDto> ownerDeltas = new HashMap<>();
+        for (BookingPhaseDto booking : bookings) {
+            BookingCountsDto bookerDelta = bookerDeltas.computeIfAbsent(booking.getBookerId(),
+                    userId -> new BookingCountsDto());
+            addStatus(bookerDelta, booking.getStatus(), 1);
+            addPhase(bookerDelta, booking.getPhase(), 1);
+            BookingCountsDto ownerDelta = ownerDeltas.computeIfAbsent(booking.getOwnerId(),
+                    userId -> new BookingCountsDto());
+            addStatus(ownerDelta, booking.getStatus(), 1);
+            addPhase(ownerDelta, booking.getPhase(), 1);
+        }
+        addAll(bookerDeltas, ownerDeltas);
+    }
+
+    // Пакет бронирований, сменивших статус с одного и того же прежнего
+    public void statusChangedAll(Collection<Booking> bookings, BookingStatus previousStatus) {
+        Map<Long, BookingCountsDto> bookerDeltas = new HashMap<>();
+        Map<Long, BookingCountsDto> ownerDeltas = new HashMap<>();
+        for (Booking booking : bookings) {
+            BookingCountsDto bookerDelta = bookerDeltas.computeIfAbsent(booking.getBooker().getId(),
+                    userId -> new BookingCountsDto());
+            addStatus(bookerDelta, previousStatus, -1);
+            addStatus(bookerDelta, booking.getStatus(), 1);
+            BookingCountsDto ownerDelta = ownerDeltas.computeIfAbsent(booking.getItem().getUserId(),
+                    userId -> new BookingCountsDto());
+            addStatus(ownerDelta, previousStatus, -1);
+            addStatus(ownerDelta, booking.getStatus(), 1);
+        }
+        addAll(bookerDeltas, ownerDeltas);
+    }
+
+    public void statusChanged(Booking booking, BookingStatus previousStatus) {
+        BookingCountsDto delta = new BookingCountsDto();
+        addStatus(delta, previousStatus, -1);
+        addStatus(delta, booking.getStatus(), 1);
+        add(booking.getBooker().getId(), booking.getItem().getUserId(), delta);
+    }
+
+    public void phaseChanged(Long bookerId, Long ownerId, BookingPhase previousPhase, BookingPhase phase) {
+        BookingCountsDto delta = new BookingCountsDto();
+        addPhase(delta, previousPhase, -1);
+        addPhase(delta, phase, 1);
+        add(bookerId, ownerId, delta);
+    }
+
+    public void createStats(Long userId) {
+        bookingStatsRepository.save(new BookingStats(userId));
+    }
+
+    public void deleteStats(Long userId) {
+        bookingStatsRepository.deleteAllByIdInBatch(List.of(userId));
+    }
+
+    public BookingStatsDto getStats(Long userId) {
+        Optional<BookingStats> optionalStats = bookingStatsRepository.findStats(userId);
+        if (optionalStats.isEmpty()) {
+            return new BookingStatsDto(new BookingCountsDto(), new BookingCountsDto());
+        }
+        BookingStats stats = optionalStats.get();
+        return new BookingStatsDto(
+                new BookingCountsDto(stats.getBookerWaiting(), stats.getBookerApproved(), stats.getBookerRejected(),
+                        stats.getBookerCurrent(), stats.getBookerFuture()),
+                new BookingCountsDto(stats.getOwnerWaiting(), stats.getOwnerApproved(), stats.getOwnerRejected(),
+                        stats.getOwnerCurrent(), stats.getOwnerFuture()));
+    }
+
+    private void addAll(Map<Long, BookingCountsDto> bookerDeltas, Map<Long, BookingCountsDto> ownerDeltas) {
+        SortedSet<Long> userIds = new TreeSet<>(bookerDeltas.keySet());
+        userIds.addAll(ownerDeltas.keySet());
+        for (Long userId : userIds) {
+            if (bookerDeltas.containsKey(userId)) {
+                addBookerCounts(userId, bookerDeltas.get(userId));
+            }
+            if (ownerDeltas.containsKey(userId)) {
+                addOwnerCounts(userId, ownerDeltas.get(userId));
+            }
+        }
+    }
+
+    // Строки обновляются в порядке возрастания id пользователя, чтобы встречные изменения
+    // (A бронирует у B, B бронирует у A) не приводили к взаимной блокировке
+    private void add(Long bookerId, Long ownerId, BookingCountsDto delta) {
+        if (bookerId < ownerId) {
+            addBookerCounts(bookerId, delta);
+            addOwnerCounts(ownerId, delta);
+        } else {
+            addOwnerCounts(ownerId, delta);
+            addBookerCounts(bookerId, delta);
+        }
+    }
+
+    // Строка счётчиков создаётся вместе с пользователем, для пользователей, созданных до её появления, -
+    // в schema.sql. Ленивое создание здесь привело бы к гонке двух вставок одной строки.
+    private void addBookerCounts(Long userId, BookingCountsDto delta) {
+        bookingStatsRepository.addBookerCounts(userId, delta.getWaiting(), delta.getApproved(), delta.getRejected(),
+                delta.getCurrent(), delta.getFuture());
+    }
+
+    private void addOwnerCounts(Long userId, BookingCountsDto delta) {
+        bookingStatsRepository.addOwnerCounts(userId, delta.getWaiting(), delta.getApproved(), delta.getRejected(),
+                delta.getCurrent(), delta.getFuture());
+    }
+
+    private static void addStatus(BookingCountsDto counts, BookingStatus status, long delta) {
+        if (status == BookingStatus.WAITING) {
+            counts.setWaiting(counts.getWaiting() + delta);
+        } else if (status == BookingStatus.APPROVED) {
+            counts.setApproved(counts.getApproved() + delta);
+        } else if (status == BookingStatus.REJECTED) {
+            counts.setRejected(counts.getRejected() + delta);
+        }
+    }
+
+    private static void addPhase(BookingCountsDto counts, BookingPhase phase, long delta) {
+        if (phase == BookingPhase.CURRENT) {
+            counts.setCurrent(counts.getCurrent() + delta);
+        } else if (phase == BookingPhase.FUTURE) {
+            counts.setFuture(counts.getFuture() + delta);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+// Счётчики меняются приращением в одном запросе, поэтому параллельные изменения не теряются
+public interface BookingStatsRepository extends JpaRepository<BookingStats, Long> {
+    // Проекция читает строку из БД, а не из контекста, где она могла устареть после приращений
+    @Query(value = "select new ru.practicum.shareit.booking.stats.BookingStats(s.userId, s.bookerWaiting, " +
+            "s.bookerApproved, s.bookerRejected, s.bookerCurrent, s.bookerFuture, s.ownerWaiting, " +
+            "s.ownerApproved, s.ownerRejected, s.ownerCurrent, s.ownerFuture) " +
+            "from BookingStats as s where s.userId = ?1")
+    Optional<BookingStats> findStats(Long userId);
+
+    @Modifying
+    @Query(value = "update BookingStats as s set s.bookerWaiting = s.bookerWaiting + ?2, " +
+            "s.bookerApproved = s.bookerApproved + ?3, s.bookerRejected = s.bookerRejected + ?4, " +
+            "s.bookerCurrent = s.bookerCurrent + ?5, s.bookerFuture = s.bookerFuture + ?6 where s.userId = ?1")
+    int addBookerCounts(Long userId, long waiting, long approved, long rejected, long current, long future);
+
+    @Modifying
+    @Query(value = "update BookingStats as s set s.ownerWaiting = s.ownerWaiting + ?2, " +
+            "s.ownerApproved = s.ownerApproved + ?3, s.ownerRejected = s.ownerRejected + ?4, " +
+            "s.ownerCurrent = s.ownerCurrent + ?5, s.ownerFuture = s.ownerFuture + ?6 where s.userId = ?1")
+    int addOwnerCounts(Long userId, long waiting, long approved, long rejected, long current, long future);
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Переводит бронирования из FUTURE в CURRENT и из CURRENT в PAST по мере наступления времени
+// и поправляет счётчики. Фаза меняется условным обновлением, поэтому одно бронирование
+// учитывается один раз, даже если тик выполняется на нескольких экземплярах сервера.
+@Component
+@Slf4j
+public class BookingStatsTicker {
+    private final BookingRepository bookingRepository;
+    private final BookingStatsCounter bookingStatsCounter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter phaseChanges;
+
+    public BookingStatsTicker(BookingRepository bookingRepository,
+                              BookingStatsCounter bookingStatsCounter,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.booking-stats.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingStatsCounter = bookingStatsCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.phaseChanges = meterRegistry.counter("booking.stats.phase.changes");
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-stats.tick-interval:PT1M}")
+    public void tick() {
+        try {
+            LocalDateTime time = LocalDateTime.now();
+            int count;
+            do {
+                count = advance(BookingPhase.FUTURE, time);
+            } while (count == batchSize);
+            do {
+                count = advance(BookingPhase.CURRENT, time);
+            } while (count == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обновить фазы бронирований", e);
+        }
+    }
+
+    private int advance(BookingPhase phase, LocalDateTime time) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<BookingPhaseDto> bookings = phase == BookingPhase.FUTURE
+                    ? bookingRepository.findStartedBookings(phase, time, PageRequest.of(0, batchSize))
+                    : bookingRepository.findEndedBookings(phase, time, PageRequest.of(0, batchSize));
+            for (BookingPhaseDto booking : bookings) {
+                BookingPhase next = BookingPhase.of(booking.getStart(), booking.getEnd(), time);
+                if (bookingRepository.updateStatsPhase(booking.getId(), phase, next) == 1) {
+                    bookingStatsCounter.phaseChanged(booking.getBookerId(), booking.getOwnerId(), phase, next);
+                    phaseChanges.increment();
+                }
+            }
+            return bookings.size();
+        });
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.sweep;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.AdvisoryLock;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.outbox.BookingEventType;
+import ru.practicum.shareit.booking.outbox.BookingOutbox;
+import ru.practicum.shareit.booking.stats.BookingStatsCounter;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
+import ru.practicum.shareit.item.cache.CommentEligibilityCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Отменяет бронирования, которые так и не подтвердили до их начала. Статус меняется одним обновлением
+// на пакет; пакеты идут отдельными транзакциями, а выполняет их только один экземпляр сервера.
+@Component
+@Slf4j
+public class WaitingBookingSweeper {
+    private static final long LOCK_KEY = 0x5357454550L;
+
+    private final BookingRepository bookingRepository;
+    private final BookingStatsCounter bookingStatsCounter;
+    private final BookingOutbox bookingOutbox;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final AdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Counter expired;
+    private final Timer duration;
+
+    public WaitingBookingSweeper(BookingRepository bookingRepository,
+                                 BookingStatsCounter bookingStatsCounter,
+                                 BookingOutbox bookingOutbox,
+                                 BookingTimelineIndex bookingTimelineIndex,
+                                 CommentEligibilityCache commentEligibilityCache,
+                                 AdvisoryLock advisoryLock,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.booking-sweeper.enabled:true}") boolean enabled,
+                                 @Value("${shareit.booking-sweeper.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingStatsCounter = bookingStatsCounter;
+        this.bookingOutbox = bookingOutbox;
+        this.bookingTimelineIndex = bookingTimelineIndex;
+        this.commentEligibilityCache = commentEligibilityCache;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.expired = meterRegistry.counter("booking.sweeper.expired");
+        this.duration = meterRegistry.timer("booking.sweeper.duration");
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-sweeper.interval:PT1M}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            duration.record(() -> advisoryLock.runExclusively(LOCK_KEY, () -> {
+                LocalDateTime time = LocalDateTime.now();
+                int count;
+                do {
+                    count = sweepBatch(time);
+                } while (count == batchSize);
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отменить неподтверждённые бронирования", e);
+        }
+    }
+
+    // Возвращает размер выбранного пакета: меньший пакет означает, что устаревших бронирований не осталось
+    private int sweepBatch(LocalDateTime time) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<Booking> bookings = bookingRepository.findStaleBookings(BookingStatus.WAITING, time,
+                    PageRequest.of(0, batchSize));
+            if (bookings.isEmpty()) {
+                return 0;
+            }
+            List<Long> ids = bookings.stream().map(Booking::getId).collect(Collectors.toList());
+            int updated = bookingRepository.updateStatuses(ids, BookingStatus.WAITING, BookingStatus.CANCELED);
+            List<Booking> canceled = bookings;
+            if (updated < bookings.size()) {
+                // Часть бронирований успели подтвердить или отклонить после выборки
+                Set<Long> canceledIds = Set.copyOf(bookingRepository.findIdsByStatus(ids, BookingStatus.CANCELED));
+                canceled = bookings.stream()
+                        .filter(booking -> canceledIds.contains(booking.getId()))
+                        .collect(Collectors.toList());
+            }
+            canceled.forEach(booking -> booking.setStatus(BookingStatus.CANCELED));
+            bookingStatsCounter.statusChangedAll(canceled, BookingStatus.WAITING);
+            for (Booking booking : canceled) {
+                bookingOutbox.add(BookingEventType.CANCELED, booking);
+                bookingTimelineIndex.update(BookingMapper.toBookingDto(booking));
+                commentEligibilityCache.evict(booking.getBooker().getId(), booking.getItem().getId());
+            }
+            expired.increment(canceled.size());
+            return bookings.size();
+        });
+        return count == null ? 0 : count;
+    }
+}
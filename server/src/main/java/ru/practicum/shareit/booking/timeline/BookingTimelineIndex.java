@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking.timeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.TransactionCallbacks;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Индекс бронирований по предметам: последнее, следующее и текущие бронирования без обращения к БД.
+// Заполняется при старте, обновляется после фиксации изменений бронирований,
+// отсутствующие предметы догружаются из БД одним запросом.
+@Component
+@Slf4j
+public class BookingTimelineIndex {
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public BookingTimelineIndex(BookingRepository bookingRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.booking-timeline.enabled:true}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.hits = meterRegistry.counter("booking.timeline.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("booking.timeline.lookups", "result", "miss");
+        Gauge.builder("booking.timeline.items", timelines, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("booking.timeline.bookings", timelines,
+                        map -> map.values().stream().mapToInt(ItemTimeline::size).sum())
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long seen = modifications.get();
+        Map<Long, List<BookingDto>> bookingsByItem;
+        try (Stream<BookingDto> bookings = bookingRepository.streamAllBookingDtos()) {
+            bookingsByItem = bookings.collect(Collectors.groupingBy(BookingDto::getItemId));
+        }
+        Map<Long, ItemTimeline> loaded = new HashMap<>();
+        bookingsByItem.forEach((itemId, bookings) -> loaded.put(itemId, ItemTimeline.of(bookings)));
+        if (modifications.get() == seen) {
+            timelines.clear();
+            timelines.putAll(loaded);
+        }
+        log.info("Индекс бронирований построен: {} предметов", loaded.size());
+    }
+
+    public Map<Long, ItemTimeline> getTimelines(Collection<Long> itemIds) {
+        Map<Long, ItemTimeline> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            ItemTimeline timeline = timelines.get(itemId);
+            if (timeline != null) {
+                result.put(itemId, timeline);
+            } else {
+                missing.add(itemId);
+            }
+        }
+        hits.increment(result.size());
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            result.putAll(load(missing));
+        }
+        return result;
+    }
+
+    // Вызывается при сохранении бронирования; индекс меняется только после фиксации транзакции
+    public void update(BookingDto booking) {
+        if (!enabled) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            modifications.incrementAndGet();
+            timelines.computeIfPresent(booking.getItemId(), (itemId, timeline) -> timeline.with(booking));
+        });
+    }
+
+    private Map<Long, ItemTimeline> load(List<Long> itemIds) {
+        long seen = modifications.get();
+        Map<Long, List<BookingDto>> bookingsByItem = bookingRepository.findBookingDtosByItems(itemIds).stream()
+                .collect(Collectors.groupingBy(BookingDto::getItemId));
+        Map<Long, ItemTimeline> loaded = new HashMap<>();
+        for (Long itemId : itemIds) {
+            loaded.put(itemId, ItemTimeline.of(bookingsByItem.getOrDefault(itemId, List.of())));
+        }
+        if (enabled) {
+            // Снимок кэшируется, только если за время загрузки бронирования не менялись
+            TransactionCallbacks.afterCommit(() -> {
+                if (modifications.get() == seen) {
+                    loaded.forEach(timelines::putIfAbsent);
+                }
+            });
+        }
+        return loaded;
+    }
+}
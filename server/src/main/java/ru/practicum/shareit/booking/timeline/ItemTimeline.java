@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.timeline;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// Неизменяемый снимок бронирований одного предмета, отсортированных по началу.
+public final class ItemTimeline {
+    private static final Comparator<BookingDto> BY_START = Comparator.comparing(BookingDto::getStart)
+            .thenComparing(BookingDto::getId);
+    private static final ItemTimeline EMPTY = new ItemTimeline(new BookingDto[0]);
+
+    private final BookingDto[] bookings;
+
+    private ItemTimeline(BookingDto[] bookings) {
+        this.bookings = bookings;
+    }
+
+    public static ItemTimeline of(Collection<BookingDto> bookings) {
+        BookingDto[] sorted = bookings.stream()
+                .filter(ItemTimeline::hasPeriod)
+                .sorted(BY_START)
+                .toArray(BookingDto[]::new);
+        return sorted.length == 0 ? EMPTY : new ItemTimeline(sorted);
+    }
+
+    public static ItemTimeline empty() {
+        return EMPTY;
+    }
+
+    // Новый снимок, в котором бронирование с тем же id заменено переданным
+    ItemTimeline with(BookingDto booking) {
+        List<BookingDto> updated = new ArrayList<>(bookings.length + 1);
+        for (BookingDto current : bookings) {
+            if (!current.getId().equals(booking.getId())) {
+                updated.add(current);
+            }
+        }
+        updated.add(booking);
+        return of(updated);
+    }
+
+    public int size() {
+        return bookings.length;
+    }
+
+    // Бронирование с наибольшим началом, не позже указанного момента
+    public Optional<BookingDto> last(LocalDateTime time) {
+        int index = firstStartAfter(time) - 1;
+        return index >= 0 ? Optional.of(bookings[index]) : Optional.empty();
+    }
+
+    // Ближайшее бронирование, начинающееся после указанного момента
+    public Optional<BookingDto> next(LocalDateTime time) {
+        int index = firstStartAfter(time);
+        return index < bookings.length ? Optional.of(bookings[index]) : Optional.empty();
+    }
+
+    private int firstStartAfter(LocalDateTime time) {
+        int low = 0;
+        int high = bookings.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bookings[middle].getStart().isAfter(time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private static boolean hasPeriod(BookingDto booking) {
+        return booking.getStart() != null && booking.getEnd() != null;
+    }
+}
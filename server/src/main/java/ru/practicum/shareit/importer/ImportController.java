@@ -0,0 +1,26 @@
+package ru.practicum.shareit.importer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.importer.dto.ImportResultDto;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/import")
+@RequiredArgsConstructor
+@Slf4j
+public class ImportController {
+    private final ImportService importService;
+
+    // Служебный импорт, как и выгрузка предметов, доступен только с X-Sharer-User-Id=0
+    @PostMapping(headers = "X-Sharer-User-Id=0", consumes = "application/x-ndjson")
+    public ImportResultDto importData(HttpServletRequest request) throws IOException {
+        log.info("Получен запрос на импорт данных");
+        return importService.importData(request.getInputStream());
+    }
+}
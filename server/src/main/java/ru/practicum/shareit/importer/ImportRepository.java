@@ -0,0 +1,136 @@
+package ru.practicum.shareit.importer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.importer.dto.ImportRecord;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Пакетные вставки импорта в обход JPA. Идентификаторы берутся блоками из тех же последовательностей,
+// что и у сущностей, поэтому не пересекаются с выданными Hibernate
+@Repository
+@RequiredArgsConstructor
+public class ImportRepository {
+    // Совпадает с allocationSize последовательностей сущностей
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<Long> allocateIds(ImportType type, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            List<Long> hiValues = jdbcTemplate.getJdbcTemplate()
+                    .queryForList(type.getSequenceQuery(), Long.class, blocks);
+            for (Long hi : hiValues) {
+                for (long id = Math.max(1, hi - ID_BLOCK_SIZE + 1); id <= hi && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    public Set<Long> findExistingUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("select id from users where id in (:ids)",
+                new MapSqlParameterSource("ids", userIds), Long.class));
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("select email from users where email in (:emails)",
+                new MapSqlParameterSource("emails", emails), String.class));
+    }
+
+    public Map<Long, ImportedItem> findItems(Collection<Long> itemIds) {
+        Map<Long, ImportedItem> items = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return items;
+        }
+        jdbcTemplate.query("select id, user_id, name from items where id in (:ids)",
+                new MapSqlParameterSource("ids", itemIds),
+                rs -> {
+                    items.put(rs.getLong("id"), new ImportedItem(rs.getLong("user_id"), rs.getString("name")));
+                });
+        return items;
+    }
+
+    // Подтверждённые бронирования предметов, пересекающиеся с периодом [from, to)
+    public List<ImportRecord> findApprovedBookings(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("select id, item_id, start_time, end_time from bookings " +
+                        "where item_id in (:ids) and status = 'APPROVED' and start_time < :to and end_time > :from",
+                new MapSqlParameterSource("ids", itemIds).addValue("from", from).addValue("to", to),
+                (rs, rowNum) -> {
+                    ImportRecord booking = new ImportRecord();
+                    booking.setId(rs.getLong("id"));
+                    booking.setItemId(rs.getLong("item_id"));
+                    booking.setStart(rs.getObject("start_time", LocalDateTime.class));
+                    booking.setEnd(rs.getObject("end_time", LocalDateTime.class));
+                    return booking;
+                });
+    }
+
+    public void insertUsers(List<ImportRecord> users) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate("insert into users (id, name, email) values (?, ?, ?)",
+                users, users.size(), (ps, user) -> {
+                    ps.setLong(1, user.getId());
+                    ps.setString(2, user.getName());
+                    ps.setString(3, user.getEmail());
+                });
+        jdbcTemplate.getJdbcTemplate().batchUpdate("insert into booking_stats (user_id) values (?)",
+                users, users.size(), (ps, user) -> ps.setLong(1, user.getId()));
+    }
+
+    public void insertItems(List<ImportRecord> items) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "insert into items (id, name, description, available, user_id) values (?, ?, ?, ?, ?)",
+                items, items.size(), (ps, item) -> {
+                    ps.setLong(1, item.getId());
+                    ps.setString(2, item.getName());
+                    ps.setString(3, item.getDescription());
+                    ps.setBoolean(4, item.getAvailable());
+                    ps.setLong(5, item.getOwnerId());
+                });
+    }
+
+    public void insertBookings(List<ImportRecord> bookings) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate("insert into bookings " +
+                        "(id, status, booker_id, item_id, start_time, end_time, stats_phase) " +
+                        "values (?, ?, ?, ?, ?, ?, ?)",
+                bookings, bookings.size(), (ps, booking) -> {
+                    ps.setLong(1, booking.getId());
+                    ps.setString(2, booking.getStatus());
+                    ps.setLong(3, booking.getBookerId());
+                    ps.setLong(4, booking.getItemId());
+                    ps.setObject(5, booking.getStart());
+                    ps.setObject(6, booking.getEnd());
+                    ps.setString(7, booking.getPhase().name());
+                });
+    }
+
+    public void insertComments(List<ImportRecord> comments) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)",
+                comments, comments.size(), (ps, comment) -> {
+                    ps.setLong(1, comment.getId());
+                    ps.setString(2, comment.getText());
+                    ps.setLong(3, comment.getItemId());
+                    ps.setLong(4, comment.getAuthorId());
+                    ps.setObject(5, comment.getCreated());
+                });
+    }
+}
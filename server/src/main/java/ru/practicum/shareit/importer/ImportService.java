@@ -0,0 +1,10 @@
+package ru.practicum.shareit.importer;
+
+import ru.practicum.shareit.importer.dto.ImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImportService {
+    ImportResultDto importData(InputStream input) throws IOException;
+}
@@ -0,0 +1,443 @@
+package ru.practicum.shareit.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.archive.BookingArchive;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.stats.BookingPhaseDto;
+import ru.practicum.shareit.booking.stats.BookingStatsCounter;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
+import ru.practicum.shareit.importer.dto.ImportRecord;
+import ru.practicum.shareit.importer.dto.ImportResultDto;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.search.IndexedItem;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Потоковый импорт NDJSON: строки читаются по одной и копятся в пакет одного типа,
+// ссылки пакета проверяются несколькими запросами, пакет записывается пакетной вставкой в одной транзакции.
+// Ссылки *Ref указывают на записи, импортированные выше в том же файле.
+@Service
+@Slf4j
+public class ImportServiceImpl implements ImportService {
+    private final ImportRepository importRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingStatsCounter bookingStatsCounter;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemViewCache itemViewCache;
+    private final UserExistenceCache userExistenceCache;
+    private final MeterRegistry meterRegistry;
+    private final BookingArchive bookingArchive;
+    private final int batchSize;
+
+    public ImportServiceImpl(ImportRepository importRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             BookingStatsCounter bookingStatsCounter,
+                             BookingTimelineIndex bookingTimelineIndex,
+                             ItemSearchIndex itemSearchIndex,
+                             ItemViewCache itemViewCache,
+                             UserExistenceCache userExistenceCache,
+                             MeterRegistry meterRegistry,
+                             BookingArchive bookingArchive,
+                             @Value("${shareit.import.batch-size:1000}") int batchSize) {
+        this.importRepository = importRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookingStatsCounter = bookingStatsCounter;
+        this.bookingTimelineIndex = bookingTimelineIndex;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemViewCache = itemViewCache;
+        this.userExistenceCache = userExistenceCache;
+        this.meterRegistry = meterRegistry;
+        this.bookingArchive = bookingArchive;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportResultDto importData(InputStream input) throws IOException {
+        long started = System.nanoTime();
+        ImportSession session = new ImportSession();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportRecord record;
+            try {
+                record = objectMapper.readValue(line, ImportRecord.class);
+            } catch (JsonProcessingException e) {
+                fail(session, null, lineNumber, "Некорректная строка: " + e.getOriginalMessage(), 1);
+                continue;
+            }
+            record.setLine(lineNumber);
+            Optional<ImportType> type = ImportType.from(record.getType());
+            if (type.isEmpty()) {
+                fail(session, null, lineNumber, "Неизвестный тип записи: " + record.getType(), 1);
+                continue;
+            }
+            if (type.get() != session.batchType || session.batch.size() == batchSize) {
+                flush(session);
+                session.batchType = type.get();
+            }
+            session.batch.add(record);
+        }
+        flush(session);
+        double seconds = Math.max((System.nanoTime() - started) / 1e9, 1e-3);
+        session.result.setRowsPerSecond(Math.round(session.rows() / seconds));
+        log.info("Импорт завершён: {} строк, {} с ошибками, {} строк/с", session.rows(),
+                session.result.getFailed(), session.result.getRowsPerSecond());
+        return session.result;
+    }
+
+    private void flush(ImportSession session) {
+        if (session.batch.isEmpty()) {
+            return;
+        }
+        ImportType type = session.batchType;
+        List<ImportRecord> records = validate(session, type);
+        session.batch.clear();
+        if (records.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(type, records));
+            imported(session, type, records);
+        } catch (DataAccessException | TransactionException e) {
+            ImportRecord first = records.get(0);
+            ImportRecord last = records.get(records.size() - 1);
+            String cause = e.getMostSpecificCause().getMessage();
+            fail(session, type, first.getLine(), "Строки " + first.getLine() + "-" + last.getLine() +
+                    " не импортированы: " + cause, records.size());
+        } finally {
+            sample.stop(meterRegistry.timer("import.batch", "type", type.name().toLowerCase()));
+        }
+    }
+
+    private List<ImportRecord> validate(ImportSession session, ImportType type) {
+        switch (type) {
+            case USER:
+                return validateUsers(session);
+            case ITEM:
+                return validateItems(session);
+            case BOOKING:
+                return validateBookings(session);
+            default:
+                return validateComments(session);
+        }
+    }
+
+    private List<ImportRecord> validateUsers(ImportSession session) {
+        Set<String> existingEmails = importRepository.findExistingEmails(session.batch.stream()
+                .map(ImportRecord::getEmail).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Set<String> emails = new HashSet<>();
+        Set<String> refs = new HashSet<>();
+        List<ImportRecord> valid = new ArrayList<>();
+        for (ImportRecord user : session.batch) {
+            String error = null;
+            if (isBlank(user.getName())) {
+                error = "Не указано имя пользователя";
+            } else if (isBlank(user.getEmail())) {
+                error = "Не указан email пользователя";
+            } else if (existingEmails.contains(user.getEmail()) || !emails.add(user.getEmail())) {
+                error = "Пользователь с email " + user.getEmail() + " уже существует";
+            } else if (isDuplicateRef(user.getRef(), session.userRefs, refs)) {
+                error = "Повторная ссылка: " + user.getRef();
+            }
+            accept(session, user, error, valid);
+        }
+        return valid;
+    }
+
+    private List<ImportRecord> validateItems(ImportSession session) {
+        Set<Long> existingUsers = importRepository.findExistingUserIds(referencedIds(session.batch,
+                ImportRecord::getOwnerRef, ImportRecord::getOwnerId));
+        Set<String> refs = new HashSet<>();
+        List<ImportRecord> valid = new ArrayList<>();
+        for (ImportRecord item : session.batch) {
+            item.setOwnerId(resolve(item.getOwnerRef(), item.getOwnerId(), session.userRefs, existingUsers));
+            String error = null;
+            if (isBlank(item.getName())) {
+                error = "Не указано название предмета";
+            } else if (isBlank(item.getDescription())) {
+                error = "Не указано описание предмета";
+            } else if (item.getAvailable() == null) {
+                error = "Не указана доступность предмета";
+            } else if (item.getOwnerId() == null) {
+                error = "Владелец не найден: " + reference(item.getOwnerRef(), item.getOwnerId());
+            } else if (isDuplicateRef(item.getRef(), session.itemRefs, refs)) {
+                error = "Повторная ссылка: " + item.getRef();
+            }
+            accept(session, item, error, valid);
+        }
+        return valid;
+    }
+
+    // Подтверждённые бронирования проверяются на пересечение с предыдущими строками и с базой,
+    // иначе ограничение исключения отклонило бы весь пакет. По той же причине отклоняются бронирования,
+    // которые попадут в архивную секцию по началу, но не пройдут её проверку окончания.
+    private List<ImportRecord> validateBookings(ImportSession session) {
+        Set<Long> existingUsers = importRepository.findExistingUserIds(referencedIds(session.batch,
+                ImportRecord::getBookerRef, ImportRecord::getBookerId));
+        Map<Long, ImportedItem> existingItems = importRepository.findItems(referencedIds(session.batch,
+                ImportRecord::getItemRef, ImportRecord::getItemId));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime archiveBoundary = bookingArchive.getBoundary();
+        List<String> errors = new ArrayList<>(session.batch.size());
+        List<ImportRecord> approved = new ArrayList<>();
+        for (ImportRecord booking : session.batch) {
+            booking.setBookerId(resolve(booking.getBookerRef(), booking.getBookerId(), session.userRefs,
+                    existingUsers));
+            ImportedItem item = resolveItem(session, booking, existingItems);
+            Optional<BookingStatus> status = parseStatus(booking.getStatus());
+            String error = null;
+            if (item == null) {
+                error = "Предмет не найден: " + reference(booking.getItemRef(), booking.getItemId());
+            } else if (booking.getBookerId() == null) {
+                error = "Пользователь не найден: " + reference(booking.getBookerRef(), booking.getBookerId());
+            } else if (booking.getBookerId().equals(item.getOwnerId())) {
+                error = "Невозможно забронировать свой предмет";
+            } else if (booking.getStart() == null || booking.getEnd() == null
+                    || !booking.getStart().isBefore(booking.getEnd())) {
+                error = "Некорректные даты бронирования";
+            } else if (archiveBoundary != null && booking.getStart().isBefore(archiveBoundary)
+                    && !booking.getEnd().isBefore(archiveBoundary)) {
+                error = "Бронирование начинается до границы архива " + archiveBoundary + " и завершается после неё";
+            } else if (status.isEmpty()) {
+                error = "Неизвестный статус бронирования: " + booking.getStatus();
+            } else {
+                booking.setItemOwnerId(item.getOwnerId());
+                booking.setItemName(item.getName());
+                booking.setStatus(status.get().name());
+                booking.setPhase(BookingPhase.of(booking.getStart(), booking.getEnd(), now));
+                if (status.get() == BookingStatus.APPROVED) {
+                    approved.add(booking);
+                }
+            }
+            errors.add(error);
+        }
+        Map<Long, List<ImportRecord>> approvedByItem = findApprovedBookings(approved);
+        List<ImportRecord> valid = new ArrayList<>();
+        for (int i = 0; i < session.batch.size(); i++) {
+            ImportRecord booking = session.batch.get(i);
+            String error = errors.get(i);
+            if (error == null && BookingStatus.APPROVED.name().equals(booking.getStatus())) {
+                List<ImportRecord> itemBookings = approvedByItem.computeIfAbsent(booking.getItemId(),
+                        itemId -> new ArrayList<>());
+                Optional<ImportRecord> overlap = itemBookings.stream()
+                        .filter(other -> other.getStart().isBefore(booking.getEnd())
+                                && booking.getStart().isBefore(other.getEnd()))
+                        .findFirst();
+                if (overlap.isPresent()) {
+                    error = "Бронирование пересекается с подтверждённым бронированием " +
+                            (overlap.get().getId() != null ? overlap.get().getId()
+                                    : "в строке " + overlap.get().getLine());
+                } else {
+                    itemBookings.add(booking);
+                }
+            }
+            accept(session, booking, error, valid);
+        }
+        return valid;
+    }
+
+    // Одним запросом по предметам пакета в пределах его периода
+    private Map<Long, List<ImportRecord>> findApprovedBookings(List<ImportRecord> bookings) {
+        if (bookings.isEmpty()) {
+            return new HashMap<>();
+        }
+        LocalDateTime from = bookings.stream().map(ImportRecord::getStart).min(Comparator.naturalOrder()).get();
+        LocalDateTime to = bookings.stream().map(ImportRecord::getEnd).max(Comparator.naturalOrder()).get();
+        return importRepository.findApprovedBookings(bookings.stream().map(ImportRecord::getItemId)
+                        .collect(Collectors.toSet()), from, to).stream()
+                .collect(Collectors.groupingBy(ImportRecord::getItemId, HashMap::new, Collectors.toList()));
+    }
+
+    private List<ImportRecord> validateComments(ImportSession session) {
+        Set<Long> existingUsers = importRepository.findExistingUserIds(referencedIds(session.batch,
+                ImportRecord::getAuthorRef, ImportRecord::getAuthorId));
+        Map<Long, ImportedItem> existingItems = importRepository.findItems(referencedIds(session.batch,
+                ImportRecord::getItemRef, ImportRecord::getItemId));
+        List<ImportRecord> valid = new ArrayList<>();
+        for (ImportRecord comment : session.batch) {
+            comment.setAuthorId(resolve(comment.getAuthorRef(), comment.getAuthorId(), session.userRefs,
+                    existingUsers));
+            ImportedItem item = resolveItem(session, comment, existingItems);
+            String error = null;
+            if (isBlank(comment.getText())) {
+                error = "Не указан текст отзыва";
+            } else if (item == null) {
+                error = "Предмет не найден: " + reference(comment.getItemRef(), comment.getItemId());
+            } else if (comment.getAuthorId() == null) {
+                error = "Автор не найден: " + reference(comment.getAuthorRef(), comment.getAuthorId());
+            } else if (comment.getCreated() == null) {
+                comment.setCreated(LocalDateTime.now());
+            }
+            accept(session, comment, error, valid);
+        }
+        return valid;
+    }
+
+    private void write(ImportType type, List<ImportRecord> records) {
+        List<Long> ids = importRepository.allocateIds(type, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            records.get(i).setId(ids.get(i));
+        }
+        switch (type) {
+            case USER:
+                importRepository.insertUsers(records);
+                records.forEach(user -> userExistenceCache.added(user.getId()));
+                break;
+            case ITEM:
+                importRepository.insertItems(records);
+                records.forEach(item -> itemSearchIndex.index(new IndexedItem(item.getId(), item.getName(),
+                        item.getDescription(), item.getAvailable())));
+                break;
+            case BOOKING:
+                importRepository.insertBookings(records);
+                bookingStatsCounter.createdAll(records.stream()
+                        .map(booking -> new BookingPhaseDto(booking.getId(),
+                                BookingStatus.valueOf(booking.getStatus()), booking.getBookerId(),
+                                booking.getItemOwnerId(), booking.getPhase(), booking.getStart(), booking.getEnd()))
+                        .collect(Collectors.toList()));
+                records.forEach(booking -> bookingTimelineIndex.update(new BookingDto(booking.getId(),
+                        BookingStatus.valueOf(booking.getStatus()), booking.getBookerId(), booking.getItemId(),
+                        booking.getStart(), booking.getEnd(), booking.getItemName())));
+                break;
+            default:
+                importRepository.insertComments(records);
+                records.stream().map(ImportRecord::getItemId).distinct().forEach(itemViewCache::evict);
+        }
+    }
+
+    // Ссылки на записи пакета становятся доступны следующим строкам только после фиксации пакета
+    private void imported(ImportSession session, ImportType type, List<ImportRecord> records) {
+        ImportResultDto result = session.result;
+        switch (type) {
+            case USER:
+                records.stream().filter(user -> user.getRef() != null)
+                        .forEach(user -> session.userRefs.put(user.getRef(), user.getId()));
+                result.setUsers(result.getUsers() + records.size());
+                break;
+            case ITEM:
+                for (ImportRecord item : records) {
+                    if (item.getRef() != null) {
+                        session.itemRefs.put(item.getRef(), item.getId());
+                    }
+                    session.items.put(item.getId(), new ImportedItem(item.getOwnerId(), item.getName()));
+                }
+                result.setItems(result.getItems() + records.size());
+                break;
+            case BOOKING:
+                result.setBookings(result.getBookings() + records.size());
+                break;
+            default:
+                result.setComments(result.getComments() + records.size());
+        }
+        meterRegistry.counter("import.rows", "type", type.name().toLowerCase(), "result", "imported")
+                .increment(records.size());
+    }
+
+    private void accept(ImportSession session, ImportRecord record, String error, List<ImportRecord> valid) {
+        if (error == null) {
+            valid.add(record);
+        } else {
+            fail(session, session.batchType, record.getLine(), error, 1);
+        }
+    }
+
+    private void fail(ImportSession session, ImportType type, long line, String message, long rows) {
+        session.fail(line, message, rows);
+        meterRegistry.counter("import.rows", "type", type == null ? "unknown" : type.name().toLowerCase(),
+                "result", "failed").increment(rows);
+    }
+
+    // Предмет берётся из импортированных выше строк файла или из уже существующих предметов
+    private ImportedItem resolveItem(ImportSession session, ImportRecord record, Map<Long, ImportedItem> existing) {
+        if (record.getItemRef() != null) {
+            Long itemId = session.itemRefs.get(record.getItemRef());
+            record.setItemId(itemId);
+            return itemId == null ? null : session.items.get(itemId);
+        }
+        if (record.getItemId() == null) {
+            return null;
+        }
+        ImportedItem item = session.items.get(record.getItemId());
+        return item != null ? item : existing.get(record.getItemId());
+    }
+
+    private static Long resolve(String ref, Long id, Map<String, Long> refs, Set<Long> existing) {
+        if (ref != null) {
+            return refs.get(ref);
+        }
+        return id != null && existing.contains(id) ? id : null;
+    }
+
+    private static Set<Long> referencedIds(List<ImportRecord> records,
+                                           Function<ImportRecord, String> ref,
+                                           Function<ImportRecord, Long> id) {
+        return records.stream()
+                .filter(record -> ref.apply(record) == null && id.apply(record) != null)
+                .map(id)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isDuplicateRef(String ref, Map<String, Long> imported, Set<String> batchRefs) {
+        return ref != null && (imported.containsKey(ref) || !batchRefs.add(ref));
+    }
+
+    private static Optional<BookingStatus> parseStatus(String status) {
+        if (status == null) {
+            return Optional.of(BookingStatus.WAITING);
+        }
+        for (BookingStatus bookingStatus : BookingStatus.values()) {
+            if (bookingStatus.name().equalsIgnoreCase(status)) {
+                return Optional.of(bookingStatus);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String reference(String ref, Long id) {
+        return ref != null ? ref : String.valueOf(id);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.importer;
+
+import ru.practicum.shareit.importer.dto.ImportErrorDto;
+import ru.practicum.shareit.importer.dto.ImportRecord;
+import ru.practicum.shareit.importer.dto.ImportResultDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Состояние одного импорта: текущий пакет, ссылки на уже записанные строки файла и итог
+class ImportSession {
+    private static final int MAX_ERRORS = 100;
+
+    final List<ImportRecord> batch = new ArrayList<>();
+    final Map<String, Long> userRefs = new HashMap<>();
+    final Map<String, Long> itemRefs = new HashMap<>();
+    final Map<Long, ImportedItem> items = new HashMap<>();
+    final ImportResultDto result = new ImportResultDto();
+    ImportType batchType;
+
+    void fail(long line, String message, long rows) {
+        result.setFailed(result.getFailed() + rows);
+        if (result.getErrors().size() < MAX_ERRORS) {
+            result.getErrors().add(new ImportErrorDto(line, message));
+        }
+    }
+
+    long rows() {
+        return result.getUsers() + result.getItems() + result.getBookings() + result.getComments()
+                + result.getFailed();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.importer;
+
+import java.util.Optional;
+
+public enum ImportType {
+    USER("select nextval('users_seq') from generate_series(1, ?)"),
+    ITEM("select nextval('items_seq') from generate_series(1, ?)"),
+    BOOKING("select nextval('bookings_seq') from generate_series(1, ?)"),
+    COMMENT("select nextval('comments_seq') from generate_series(1, ?)");
+
+    // Запрос выдаёт несколько значений последовательности, каждое закрепляет блок идентификаторов
+    private final String sequenceQuery;
+
+    ImportType(String sequenceQuery) {
+        this.sequenceQuery = sequenceQuery;
+    }
+
+    public String getSequenceQuery() {
+        return sequenceQuery;
+    }
+
+    public static Optional<ImportType> from(String stringType) {
+        for (ImportType type : values()) {
+            if (type.name().equalsIgnoreCase(stringType)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
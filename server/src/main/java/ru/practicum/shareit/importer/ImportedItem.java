@@ -0,0 +1,12 @@
+package ru.practicum.shareit.importer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Владелец и название предмета, на который ссылаются бронирования и отзывы импорта
+@Getter
+@AllArgsConstructor
+public class ImportedItem {
+    private final Long ownerId;
+    private final String name;
+}
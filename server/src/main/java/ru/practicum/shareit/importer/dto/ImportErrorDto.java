@@ -0,0 +1,13 @@
+package ru.practicum.shareit.importer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportErrorDto {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.importer.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import ru.practicum.shareit.booking.BookingPhase;
+
+import java.time.LocalDateTime;
+
+// Строка NDJSON импорта. Ссылки на записи того же файла задаются полями *Ref,
+// на уже существующие сущности - полями *Id
+@Data
+public class ImportRecord {
+    private String type;
+    private String ref;
+    private String name;
+    private String email;
+    private String description;
+    private Boolean available;
+    private String ownerRef;
+    private Long ownerId;
+    private String itemRef;
+    private Long itemId;
+    private String bookerRef;
+    private Long bookerId;
+    private String authorRef;
+    private Long authorId;
+    private String status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private String text;
+    private LocalDateTime created;
+    @JsonIgnore
+    private long line;
+    @JsonIgnore
+    private Long id;
+    @JsonIgnore
+    private String itemName;
+    @JsonIgnore
+    private Long itemOwnerId;
+    @JsonIgnore
+    private BookingPhase phase;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.importer.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportResultDto {
+    private long users;
+    private long items;
+    private long bookings;
+    private long comments;
+    private long failed;
+    private long rowsPerSecond;
+    private List<ImportErrorDto> errors = new ArrayList<>();
+}
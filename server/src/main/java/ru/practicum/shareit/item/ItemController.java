@@ -1,13 +1,24 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,6 +29,7 @@ import java.util.stream.Collectors;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto addItem(@RequestHeader("X-Sharer-User-Id") long userId, @RequestBody ItemDto itemDto) {
@@ -34,6 +46,30 @@ public class ItemController {
         return itemService.addComment(userId, itemId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getComments(@PathVariable long itemId,
+                                        @RequestParam(required = false) String after,
+                                        @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                        HttpServletResponse response) {
+        log.info("Получен запрос на получение комментариев к предмету {} после {}", itemId, after);
+        List<CommentDto> comments = itemService.getComments(itemId, after, size);
+        if (comments.size() == size) {
+            CommentDto last = comments.get(comments.size() - 1);
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(last.getCreated(), last.getId()).encode());
+        }
+        return comments;
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        log.info("Получен запрос на получение занятости предмета {} с {} по {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") long userId, @RequestBody ItemDto itemDto,
                               @PathVariable long itemId) {
@@ -44,9 +80,15 @@ public class ItemController {
     @GetMapping("/search")
     public List<ItemDto> searchItem(@RequestParam String text,
                                     @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                    @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                    @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                    @RequestParam(required = false) String after,
+                                    HttpServletResponse response) {
         log.info("Получен запрос на поиск предмета по тексту{}", text);
-        return itemService.searchItem(text, from, size).collect(Collectors.toList());
+        List<ItemDto> items = itemService.searchItem(text, from, size, after).collect(Collectors.toList());
+        if (items.size() == size && itemService.isSearchCursorSupported()) {
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(items.get(items.size() - 1).getId()).encode());
+        }
+        return items;
     }
 
     @GetMapping("/{itemId}")
@@ -62,4 +104,23 @@ public class ItemController {
         log.info("Получен запрос на получение списка предметов пользователя с id {}", userId);
         return itemService.getItems(userId, from, size).collect(Collectors.toList());
     }
+
+    // Полная выгрузка пишется в ответ JSON-массивом по мере чтения из базы, без сборки списка в памяти
+    @GetMapping(headers = "X-Sharer-User-Id=0")
+    public void exportItems(HttpServletResponse response) throws IOException {
+        log.info("Получен запрос на выгрузку всех предметов");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            itemService.exportItems(itemDto -> {
+                try {
+                    generator.writeObject(itemDto);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
 }
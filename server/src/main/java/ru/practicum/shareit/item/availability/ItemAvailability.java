@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.availability;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ItemAvailability {
+    //Подавление конструктора по умолчанию для достижения неинстанцируемости
+    private ItemAvailability() {
+        throw new AssertionError();
+    }
+
+    // Бронирования должны быть упорядочены по началу: пересекающиеся и смежные сливаются за один проход,
+    // промежутки между занятыми интервалами внутри [from, to) становятся свободными
+    public static ItemAvailabilityDto calculate(Long itemId, LocalDateTime from, LocalDateTime to,
+                                                List<BookingDto> bookings) {
+        List<IntervalDto> busy = new ArrayList<>();
+        IntervalDto current = null;
+        for (BookingDto booking : bookings) {
+            LocalDateTime start = booking.getStart().isBefore(from) ? from : booking.getStart();
+            LocalDateTime end = booking.getEnd().isAfter(to) ? to : booking.getEnd();
+            if (!start.isBefore(end)) {
+                continue;
+            }
+            if (current != null && !start.isAfter(current.getEnd())) {
+                if (end.isAfter(current.getEnd())) {
+                    current.setEnd(end);
+                }
+            } else {
+                current = new IntervalDto(start, end);
+                busy.add(current);
+            }
+        }
+        List<IntervalDto> free = new ArrayList<>();
+        LocalDateTime freeStart = from;
+        for (IntervalDto interval : busy) {
+            if (freeStart.isBefore(interval.getStart())) {
+                free.add(new IntervalDto(freeStart, interval.getStart()));
+            }
+            freeStart = interval.getEnd();
+        }
+        if (freeStart.isBefore(to)) {
+            free.add(new IntervalDto(freeStart, to));
+        }
+        return new ItemAvailabilityDto(itemId, from, to, busy, free);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.TransactionCallbacks;
+
+import java.time.Duration;
+
+// Пары (пользователь, предмет), для которых уже найдено завершённое бронирование. Право оставить отзыв
+// пропадает, только если такое бронирование отклонят или отменят, поэтому смена статуса удаляет пару.
+@Component
+public class CommentEligibilityCache {
+    private final Cache<Key, Boolean> cache;
+
+    public CommentEligibilityCache(
+            MeterRegistry meterRegistry,
+            @Value("${shareit.comment-eligibility-cache.maximum-size:10000}") long maximumSize,
+            @Value("${shareit.comment-eligibility-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "comment-eligibility");
+    }
+
+    public boolean isEligible(Long userId, Long itemId) {
+        return cache.getIfPresent(new Key(userId, itemId)) != null;
+    }
+
+    // Пара запоминается после фиксации транзакции, в которой проверено бронирование
+    public void put(Long userId, Long itemId) {
+        TransactionCallbacks.afterCommit(() -> cache.put(new Key(userId, itemId), Boolean.TRUE));
+    }
+
+    public void evict(Long userId, Long itemId) {
+        Key key = new Key(userId, itemId);
+        cache.invalidate(key);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(key));
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final Long userId;
+        private final Long itemId;
+    }
+}
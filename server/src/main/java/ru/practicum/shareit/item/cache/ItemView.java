@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+// Представление предмета для любого пользователя: сам предмет и последние комментарии.
+// Владелец нужен, чтобы отличать запросы, которым требуются бронирования.
+@Getter
+@AllArgsConstructor
+public class ItemView {
+    private final Long ownerId;
+    private final ItemDto item;
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Ограниченный по размеру кэш представлений предметов перед ItemService.getById.
+// Одновременные промахи по одному ключу выполняют одну загрузку, остальные потоки ждут её результата.
+@Component
+public class ItemViewCache {
+    private final Cache<Long, ItemView> cache;
+
+    public ItemViewCache(MeterRegistry meterRegistry,
+                         @Value("${shareit.item-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${shareit.item-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "items");
+    }
+
+    public ItemView get(Long itemId, Function<Long, ItemView> loader) {
+        // Внутри транзакции могут быть видны незафиксированные изменения, такие данные не кэшируются
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.apply(itemId);
+        }
+        return cache.get(itemId, loader);
+    }
+
+    // Удаляет предмет сразу и повторно после фиксации транзакции,
+    // чтобы не осталось значения, загруженного до фиксации
+    public void evict(Long itemId) {
+        cache.invalidate(itemId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(itemId));
+    }
+}
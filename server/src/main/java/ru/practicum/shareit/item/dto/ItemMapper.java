@@ -20,6 +20,21 @@ public class ItemMapper {
         return itemDto;
     }
 
+    public static ItemDto copy(ItemDto itemDto) {
+        ItemDto copy = new ItemDto();
+        copy.setId(itemDto.getId());
+        copy.setName(itemDto.getName());
+        copy.setDescription(itemDto.getDescription());
+        copy.setAvailable(itemDto.getAvailable());
+        copy.setLastBooking(itemDto.getLastBooking());
+        copy.setNextBooking(itemDto.getNextBooking());
+        copy.setComments(itemDto.getComments());
+        copy.setCommentsCount(itemDto.getCommentsCount());
+        copy.setCommentsCursor(itemDto.getCommentsCursor());
+        copy.setRequestId(itemDto.getRequestId());
+        return copy;
+    }
+
     public static Item toItem(ItemDto itemDto) {
         Item item = new Item();
         item.setId(itemDto.getId());
@@ -1,11 +1,21 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findCommentsByItemOrderByCreatedDesc(Item item);
+    @Query("select c from Comment as c join fetch c.item join fetch c.author where c.item.id = ?1 " +
+            "order by c.created desc, c.id desc")
+    List<Comment> findNewestComments(Long itemId, Pageable pageable);
+
+    @Query("select c from Comment as c join fetch c.item join fetch c.author where c.item.id = ?1 " +
+            "and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) order by c.created desc, c.id desc")
+    List<Comment> findCommentsBefore(Long itemId, LocalDateTime created, Long commentId, Pageable pageable);
+
+    long countByItemId(Long itemId);
 }
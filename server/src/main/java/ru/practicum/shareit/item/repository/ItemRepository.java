@@ -2,16 +2,69 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemToRequestDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.IndexedItem;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    @Query("select i from Item as i where lower(i.name) like lower(concat('%', ?1, '%')) or " +
-            "lower(i.description) like lower(concat('%', ?1, '%')) order by i.id asc")
-    List<Item> searchItemsBuNameAndDescription(String text, Pageable pageable);
+    // Списки предметов читаются проекцией без загрузки сущностей
+    String DTO_SELECT = "select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "r.id) from Item as i left join i.itemRequest as r ";
+
+    @Query(DTO_SELECT + "where i.available = true and (lower(i.name) like lower(concat('%', ?1, '%')) or " +
+            "lower(i.description) like lower(concat('%', ?1, '%'))) order by i.id asc")
+    List<ItemDto> searchItemsBuNameAndDescription(String text, Pageable pageable);
+
+    @Query(DTO_SELECT + "where i.available = true and i.id > ?2 and (" +
+            "lower(i.name) like lower(concat('%', ?1, '%')) or " +
+            "lower(i.description) like lower(concat('%', ?1, '%'))) order by i.id asc")
+    List<ItemDto> searchItemsAfter(String text, Long afterId, Pageable pageable);
+
+    // Только для PostgreSQL: использует search_vector и триграммные индексы из schema-postgresql.sql
+    @Query(value = "select i.id, i.name, i.description, i.available, i.user_id, i.item_request_id " +
+            "from items as i where i.available = true and (" +
+            "i.search_vector @@ (plainto_tsquery('russian', ?1) || plainto_tsquery('simple', ?1)) or " +
+            "lower(i.name) like concat('%', lower(?1), '%') or " +
+            "lower(i.description) like concat('%', lower(?1), '%')) " +
+            "order by ts_rank(i.search_vector, plainto_tsquery('russian', ?1) || plainto_tsquery('simple', ?1)) desc, " +
+            "i.id asc", nativeQuery = true)
+    List<Item> searchItemsByText(String text, Pageable pageable);
+
+    // Блокировка строки предмета сериализует проверку пересечений бронирований этого предмета
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = ?1")
+    Optional<Item> findItemForUpdate(Long itemId);
+
+    @Query(DTO_SELECT + "where i.userId = ?1 order by i.id asc")
+    List<ItemDto> findItemsByUserId(Long userId, Pageable pageable);
+
+    @Query(DTO_SELECT + "where i.id in ?1")
+    List<ItemDto> findItemDtosByIds(Collection<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemToRequestDto(i.id, i.name, i.description, i.available, " +
+            "r.id) from Item as i join i.itemRequest as r where r.id in ?1 order by i.id asc")
+    List<ItemToRequestDto> findItemsByRequests(Collection<Long> requestIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new ru.practicum.shareit.item.search.IndexedItem(i.id, i.name, i.description, i.available) " +
+            "from Item as i")
+    Stream<IndexedItem> streamIndexedItems();
 
-    @Query("select i from Item as i where i.userId = ?1 order by i.id asc")
-    List<Item> findItemsByUserId(Long userId, Pageable pageable);
+    // Выгрузка всех предметов курсором без загрузки сущностей в контекст персистентности
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(DTO_SELECT + "order by i.id asc")
+    Stream<ItemDto> streamAllItemDtos();
 }
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.FromSizeRequest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Выбирает способ поиска предметов по свойству shareit.item-search.mode.
+// Режим postgres доступен только на PostgreSQL, на остальных БД используется запрос like.
+@Component
+@Slf4j
+public class ItemSearch {
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchMode mode;
+
+    public ItemSearch(ItemRepository itemRepository,
+                      ItemSearchIndex itemSearchIndex,
+                      @Value("${shareit.item-search.mode:index}") ItemSearchMode mode,
+                      @Value("${spring.sql.init.platform:all}") String platform) {
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        if (mode == ItemSearchMode.POSTGRES && !"postgresql".equals(platform)) {
+            log.warn("Поиск средствами PostgreSQL недоступен для платформы {}, используется запрос like", platform);
+            this.mode = ItemSearchMode.JPQL;
+        } else {
+            this.mode = mode;
+        }
+    }
+
+    // Курсор по id возможен, только если результаты упорядочены по id: в режиме postgres они упорядочены по рангу
+    public boolean isCursorSupported() {
+        return mode != ItemSearchMode.POSTGRES;
+    }
+
+    public List<ItemDto> search(String text, Long afterId, int from, int size) {
+        switch (mode) {
+            case INDEX:
+                return searchInIndex(text, afterId, from, size);
+            case POSTGRES:
+                if (afterId != null) {
+                    throw new IllegalStateException("Курсор не поддерживается при поиске с ранжированием");
+                }
+                return itemRepository.searchItemsByText(text, FromSizeRequest.of(from, size)).stream()
+                        .map(ItemMapper::toItemDto)
+                        .collect(Collectors.toList());
+            default:
+                if (afterId != null) {
+                    return itemRepository.searchItemsAfter(text, afterId, FromSizeRequest.of(0, size));
+                }
+                return itemRepository.searchItemsBuNameAndDescription(text, FromSizeRequest.of(from, size));
+        }
+    }
+
+    private List<ItemDto> searchInIndex(String text, Long afterId, int from, int size) {
+        List<Long> itemIds = itemSearchIndex.search(text, afterId, from, size);
+        Map<Long, ItemDto> items = itemRepository.findItemDtosByIds(itemIds).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        List<ItemDto> result = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            ItemDto item = items.get(itemId);
+            if (item == null) {
+                itemSearchIndex.remove(itemId);
+            } else {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+}
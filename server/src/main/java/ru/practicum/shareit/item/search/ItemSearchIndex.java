@@ -0,0 +1,229 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.TransactionCallbacks;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Инвертированный индекс по триграммам названия и описания предметов.
+// Триграммы запроса сужают множество кандидатов, затем совпадение проверяется по подстроке,
+// поэтому результат совпадает с поиском like '%text%' без учёта регистра.
+// Недоступные предметы отбрасываются внутри индекса, чтобы страницы не оказывались неполными.
+@Component
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final NavigableMap<Long, Document> documents = new TreeMap<>();
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.item-search.mode:index}") ItemSearchMode mode) {
+        this.itemRepository = itemRepository;
+        this.enabled = mode == ItemSearchMode.INDEX;
+        Gauge.builder("item.search.index.items", this, ItemSearchIndex::size)
+                .register(meterRegistry);
+        Gauge.builder("item.search.index.trigrams", this, ItemSearchIndex::trigramCount)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try (Stream<IndexedItem> items = itemRepository.streamIndexedItems()) {
+            lock.writeLock().lock();
+            try {
+                documents.clear();
+                postings.clear();
+                items.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Поисковый индекс предметов построен: {} предметов", size());
+    }
+
+    // Вызывается при добавлении и изменении предмета; индекс меняется после фиксации транзакции
+    public void index(IndexedItem item) {
+        if (!enabled) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                put(item);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Идентификаторы доступных предметов, содержащих текст, в порядке возрастания id
+    public List<Long> search(String text, Long afterId, int from, int size) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<Long> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Iterable<Long> candidates;
+            List<NavigableSet<Long>> filters = new ArrayList<>();
+            if (query.length() < GRAM) {
+                candidates = afterId == null ? documents.keySet() : documents.tailMap(afterId, false).keySet();
+            } else {
+                for (String trigram : trigrams(query)) {
+                    NavigableSet<Long> posting = postings.get(trigram);
+                    if (posting == null) {
+                        return Collections.emptyList();
+                    }
+                    filters.add(posting);
+                }
+                filters.sort(Comparator.comparingInt(Set::size));
+                candidates = afterId == null ? filters.remove(0) : filters.remove(0).tailSet(afterId, false);
+            }
+            int skipped = 0;
+            for (Long id : candidates) {
+                if (!containsAll(filters, id) || !documents.get(id).matches(query)) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                    continue;
+                }
+                result.add(id);
+                if (result.size() == size) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(IndexedItem item) {
+        delete(item.getId());
+        Document document = new Document(lower(item.getName()), lower(item.getDescription()),
+                Boolean.TRUE.equals(item.getAvailable()));
+        documents.put(item.getId(), document);
+        for (String trigram : document.trigrams()) {
+            postings.computeIfAbsent(trigram, key -> new TreeSet<>()).add(item.getId());
+        }
+    }
+
+    private void delete(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String trigram : document.trigrams()) {
+            NavigableSet<Long> posting = postings.get(trigram);
+            posting.remove(itemId);
+            if (posting.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private static boolean containsAll(List<NavigableSet<Long>> postings, Long id) {
+        for (NavigableSet<Long> posting : postings) {
+            if (!posting.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Document {
+        private final String name;
+        private final String description;
+        private final boolean available;
+
+        Document(String name, String description, boolean available) {
+            this.name = name;
+            this.description = description;
+            this.available = available;
+        }
+
+        boolean matches(String query) {
+            return available && (name.contains(query) || description.contains(query));
+        }
+
+        Set<String> trigrams() {
+            Set<String> result = ItemSearchIndex.trigrams(name);
+            result.addAll(ItemSearchIndex.trigrams(description));
+            return result;
+        }
+    }
+}
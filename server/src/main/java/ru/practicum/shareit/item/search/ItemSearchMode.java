@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.search;
+
+public enum ItemSearchMode {
+    // Поиск по индексу в памяти сервера
+    INDEX,
+    // Полнотекстовый и триграммный поиск средствами PostgreSQL
+    POSTGRES,
+    // Поиск запросом like по таблице items
+    JPQL
+}
@@ -1,9 +1,13 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public interface ItemService {
@@ -15,9 +19,17 @@ public interface ItemService {
 
     Item getItemById(Long itemId);
 
-    Stream<ItemDto> searchItem(String text, Integer from, Integer size);
+    Stream<ItemDto> searchItem(String text, Integer from, Integer size, String after);
+
+    boolean isSearchCursorSupported();
 
     Stream<ItemDto> getItems(Long userId, Integer from, Integer size);
 
+    void exportItems(Consumer<ItemDto> consumer);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<CommentDto> getComments(Long itemId, String after, Integer size);
+
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
 }
@@ -5,28 +5,43 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.FromSizeRequest;
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.timeline.BookingTimelineIndex;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.availability.ItemAvailability;
+import ru.practicum.shareit.item.cache.CommentEligibilityCache;
+import ru.practicum.shareit.item.cache.ItemView;
+import ru.practicum.shareit.item.cache.ItemViewCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.IndexedItem;
+import ru.practicum.shareit.item.search.ItemSearch;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserMapper;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserResolver;
 
+import javax.transaction.Transactional;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,19 +49,26 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
+    private static final Duration MAX_AVAILABILITY_PERIOD = Duration.ofDays(366);
+
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
-    private final UserService userService;
+    private final UserResolver userResolver;
     private final BookingRepository bookingRepository;
+    private final BookingTimelineIndex bookingTimelineIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearch itemSearch;
+    private final ItemViewCache itemViewCache;
+    private final CommentEligibilityCache commentEligibilityCache;
 
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestFeed itemRequestFeed;
 
     @Override
     public ItemDto addItem(ItemDto itemDto, long userId) {
         Item item = ItemMapper.toItem(itemDto);
-        if (userService.getUserById(userId) == null) {
-            throw new EntityNotFoundException("Пользователь не найден");
-        }
+        userResolver.checkExists(userId);
         item.setUserId(userId);
         if (itemDto.getRequestId() != null) {
             Optional<ItemRequest> optionalItemRequest =
@@ -56,22 +78,19 @@ public class ItemServiceImpl implements ItemService {
             }
             item.setItemRequest(optionalItemRequest.get());
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        return ItemMapper.toItemDto(saveItem(item));
     }
 
     @Override
     public ItemDto updateItem(ItemDto updatedItemDto, long itemId, long userId) {
         Item updatedItem = ItemMapper.toItem(updatedItemDto);
         Optional<Item> optionalItem = itemRepository.findById(itemId);
-        Set<Long> userItems = userService.getUserItems(userId).stream()
-                .map(Item::getId)
-                .collect(Collectors.toSet());
-        if (userItems.isEmpty() || !userItems.contains(itemId)) {
+        // Владелец берётся из строки предмета, загруженной по первичному ключу,
+        // пользователь проверяется только при отказе
+        if (optionalItem.isEmpty() || !Objects.equals(optionalItem.get().getUserId(), userId)) {
+            userResolver.checkExists(userId);
             throw new EntityNotFoundException("Предмет отсутсвует у данного пользователя");
         }
-        if (optionalItem.isEmpty()) {
-            throw new EntityNotFoundException("Товар не найден");
-        }
         Item item = optionalItem.get();
         if (updatedItem.getName() != null) {
             item.setName(updatedItem.getName());
@@ -82,27 +101,30 @@ public class ItemServiceImpl implements ItemService {
         if (updatedItem.getAvailable() != null) {
             item.setAvailable(updatedItem.getAvailable());
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = saveItem(item);
+        itemViewCache.evict(itemId);
+        return ItemMapper.toItemDto(savedItem);
     }
 
 
     @Override
     public ItemDto getById(Long itemId, Long userId) {
         log.info("На сервис поступил запрос на предмет с id {} от пользователя с id {}", itemId, userId);
-        Optional<Item> optionalItem = itemRepository.findById(itemId);
-        if (optionalItem.isEmpty()) {
-            throw new EntityNotFoundException("Предмет не найден");
-        }
-        ItemDto itemDto = ItemMapper.toItemDto(optionalItem.get());
-        itemDto.setComments(commentRepository.findCommentsByItemOrderByCreatedDesc(optionalItem.get())
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList()));
-        if (userId.equals(optionalItem.get().getUserId())) {
-            return setLastAndNextBookingForItem(itemDto);
-        } else {
-            return itemDto;
+        ItemView itemView = itemViewCache.get(itemId, this::loadItemView);
+        // Кэшированное представление общее для всех запросов, наружу отдаётся копия
+        ItemDto itemDto = ItemMapper.copy(itemView.getItem());
+        if (userId.equals(itemView.getOwnerId())) {
+            setLastAndNextBookings(List.of(itemDto));
         }
+        return itemDto;
+    }
+
+    private ItemView loadItemView(Long itemId) {
+        Item item = getItemById(itemId);
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        setNewestComments(itemDto);
+        itemDto.setComments(List.copyOf(itemDto.getComments()));
+        return new ItemView(item.getUserId(), itemDto);
     }
 
     @Override
@@ -115,79 +137,144 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public Stream<ItemDto> searchItem(String text, Integer from, Integer size) {
-        Pageable pageable = FromSizeRequest.of(from, size);
+    public Stream<ItemDto> searchItem(String text, Integer from, Integer size, String after) {
         if (text.isEmpty()) {
             return Stream.empty();
         }
-        return itemRepository.searchItemsBuNameAndDescription(text, pageable).stream()
-                .filter(Item::getAvailable)
-                .map(ItemMapper::toItemDto);
+        if (after == null) {
+            return itemSearch.search(text, null, from, size).stream();
+        }
+        return itemSearch.search(text, PageCursor.parse(after).getId(), 0, size).stream();
+    }
+
+    @Override
+    public boolean isSearchCursorSupported() {
+        return itemSearch.isCursorSupported();
     }
 
     @Override
     public Stream<ItemDto> getItems(Long userId, Integer from, Integer size) {
         Pageable pageable = FromSizeRequest.of(from, size);
-        if (userId == 0) {
-            return getAllItems();
+        userResolver.checkExists(userId);
+        List<ItemDto> items = itemRepository.findItemsByUserId(userId, pageable);
+        return setLastAndNextBookings(items).stream();
+    }
+
+    // Полная выгрузка читается курсором и передаётся потребителю по одному предмету,
+    // поэтому расход памяти не зависит от размера таблицы
+    @Override
+    @Transactional
+    public void exportItems(Consumer<ItemDto> consumer) {
+        log.info("На сервис поступил запрос на выгрузку всех предметов");
+        try (Stream<ItemDto> items = itemRepository.streamAllItemDtos()) {
+            items.forEach(consumer);
+        }
+    }
+
+    // Занятым считается время подтверждённых и ожидающих подтверждения бронирований
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(MAX_AVAILABILITY_PERIOD) > 0) {
+            throw new IllegalStateException("Некорректный период: начало должно быть раньше конца, " +
+                    "период не длиннее " + MAX_AVAILABILITY_PERIOD.toDays() + " дней");
+        }
+        getItemById(itemId);
+        List<BookingDto> bookings = bookingRepository.findItemBookingsBetween(itemId,
+                List.of(BookingStatus.APPROVED, BookingStatus.WAITING), from, to);
+        return ItemAvailability.calculate(itemId, from, to, bookings);
+    }
+
+    @Override
+    public List<CommentDto> getComments(Long itemId, String after, Integer size) {
+        getItemById(itemId);
+        Pageable pageable = FromSizeRequest.of(0, size);
+        List<Comment> comments;
+        PageCursor cursor = PageCursor.parseTimed(after);
+        if (cursor == null) {
+            comments = commentRepository.findNewestComments(itemId, pageable);
         } else {
-            if (userService.getUserById(userId) == null) {
-                throw new EntityNotFoundException("Пользователь не найден");
-            }
-            return itemRepository.findItemsByUserId(userId, pageable).stream()
-                    .peek(System.out::println)
-                    .map(ItemMapper::toItemDto)
-                    .map(this::setLastAndNextBookingForItem);
+            comments = commentRepository.findCommentsBefore(itemId, cursor.getTime(), cursor.getId(), pageable);
         }
+        return comments.stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
-        List<Booking> bookings = bookingRepository
-                .findBookingsByBookerAndItemAndStatusNot(userId, itemId, BookingStatus.REJECTED);
-        if (bookings.isEmpty()) {
-            throw new IllegalStateException("У предмета не было бронирований");
-        }
-        boolean future = true;
-        for (Booking booking : bookings) {
-            if (booking.getEnd().isBefore(LocalDateTime.now())) {
-                future = false;
-                break;
+        if (!commentEligibilityCache.isEligible(userId, itemId)) {
+            Optional<LocalDateTime> firstEnd = bookingRepository.findFirstBookingEnd(userId, itemId,
+                    List.of(BookingStatus.WAITING, BookingStatus.APPROVED));
+            if (firstEnd.isEmpty()) {
+                throw new IllegalStateException("У предмета не было бронирований");
             }
-        }
-        if (future) {
-            throw new IllegalStateException("Комментарий не может быть оставлен к будущему бронированию");
+            if (!firstEnd.get().isBefore(LocalDateTime.now())) {
+                throw new IllegalStateException("Комментарий не может быть оставлен к будущему бронированию");
+            }
+            commentEligibilityCache.put(userId, itemId);
         }
         Comment comment = CommentMapper.toComment(commentDto);
         comment.setItem(getItemById(itemId));
-        comment.setAuthor(UserMapper.toUser(userService.getUserById(userId)));
+        comment.setAuthor(UserMapper.toUser(userResolver.getUser(userId)));
         comment.setCreated(LocalDateTime.now());
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        Comment savedComment = commentRepository.save(comment);
+        itemViewCache.evict(itemId);
+        return CommentMapper.toCommentDto(savedComment);
     }
 
-    private Stream<ItemDto> getAllItems() {
-        return itemRepository.findAll().stream().map(ItemMapper::toItemDto);
+    // В предмет встраиваются только последние комментарии, остальные доступны по курсору
+    private void setNewestComments(ItemDto itemDto) {
+        List<CommentDto> comments = commentRepository
+                .findNewestComments(itemDto.getId(), FromSizeRequest.of(0, COMMENTS_PREVIEW_SIZE)).stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+        long commentsCount = comments.size() < COMMENTS_PREVIEW_SIZE
+                ? comments.size() : commentRepository.countByItemId(itemDto.getId());
+        itemDto.setComments(comments);
+        itemDto.setCommentsCount(commentsCount);
+        if (commentsCount > comments.size()) {
+            CommentDto last = comments.get(comments.size() - 1);
+            itemDto.setCommentsCursor(PageCursor.of(last.getCreated(), last.getId()).encode());
+        }
     }
 
-    private ItemDto setLastAndNextBookingForItem(ItemDto itemDto) {
-        Booking lastBooking = null;
-        Booking nextBooking = null;
-        List<Booking> bookings = bookingRepository.findBookingsByItemAsc(itemDto.getId());
-        log.info("BOOKING: {}", bookings);
-        for (Booking booking : bookings) {
-            if (booking.getStart().isAfter(LocalDateTime.now())) {
-                nextBooking = booking;
-                break;
-            } else {
-                lastBooking = booking;
-            }
+    private Item saveItem(Item item) {
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(new IndexedItem(savedItem.getId(), savedItem.getName(),
+                savedItem.getDescription(), savedItem.getAvailable()));
+        if (savedItem.getItemRequest() != null) {
+            itemRequestFeed.updateItem(ItemMapper.toItemToRequestDto(savedItem));
+        }
+        return savedItem;
+    }
+
+    // Последнее и следующее бронирование для всей страницы предметов берутся из индекса бронирований,
+    // а при отключенном индексе загружаются одним запросом
+    private List<ItemDto> setLastAndNextBookings(List<ItemDto> items) {
+        if (items.isEmpty()) {
+            return items;
         }
-        if (lastBooking != null) {
-            itemDto.setLastBooking(BookingMapper.toBookingDto(lastBooking));
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemDto> itemsById = items.stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        if (bookingTimelineIndex.isEnabled()) {
+            bookingTimelineIndex.getTimelines(itemsById.keySet()).forEach((itemId, timeline) -> {
+                ItemDto itemDto = itemsById.get(itemId);
+                timeline.last(now).ifPresent(itemDto::setLastBooking);
+                timeline.next(now).ifPresent(itemDto::setNextBooking);
+            });
+            return items;
         }
-        if (nextBooking != null) {
-            itemDto.setNextBooking(BookingMapper.toBookingDto(nextBooking));
+        for (BookingDto booking : bookingRepository.findLastAndNextBookingsByItems(itemsById.keySet(), now)) {
+            ItemDto itemDto = itemsById.get(booking.getItemId());
+            if (booking.getStart().isAfter(now)) {
+                if (itemDto.getNextBooking() == null) {
+                    itemDto.setNextBooking(booking);
+                }
+            } else {
+                itemDto.setLastBooking(booking);
+            }
         }
-        return itemDto;
+        return items;
     }
 }
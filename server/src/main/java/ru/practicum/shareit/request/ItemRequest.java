@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request;
 
 import lombok.*;
+import org.hibernate.Hibernate;
 import ru.practicum.shareit.item.model.Item;
 
 import javax.persistence.*;
@@ -10,11 +11,13 @@ import java.util.List;
 
 @Entity
 @Table(name = "item_requests")
-@EqualsAndHashCode
 @Getter
 @Setter
 @NoArgsConstructor
+@NamedEntityGraph(name = ItemRequest.WITH_ITEMS, attributeNodes = @NamedAttributeNode("items"))
 public class ItemRequest {
+    public static final String WITH_ITEMS = "ItemRequest.withItems";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,4 +31,20 @@ public class ItemRequest {
     @OneToMany (mappedBy = "itemRequest")
     private List<Item> items = new ArrayList<>();
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+            return false;
+        }
+        ItemRequest other = (ItemRequest) o;
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClass(this).hashCode();
+    }
 }
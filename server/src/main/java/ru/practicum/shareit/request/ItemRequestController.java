@@ -3,9 +3,11 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -33,10 +35,17 @@ public class ItemRequestController {
                                                          @RequestParam(name = "from", defaultValue = "0")
                                                          Integer from,
                                                          @RequestParam(name = "size", defaultValue = "10")
-                                                         Integer size) {
+                                                         Integer size,
+                                                         @RequestParam(required = false) String after,
+                                                         HttpServletResponse response) {
         log.info("Получен Get-запрос списка запросов друших пользователей от пользователя с id {}," +
                 "c from {} и size {}", userId, from, size);
-        return itemRequestService.getAllRequestsOtherUsers(from, size, userId);
+        List<ItemRequestDto> requests = itemRequestService.getAllRequestsOtherUsers(from, size, userId, after);
+        if (requests.size() == size) {
+            ItemRequestDto last = requests.get(requests.size() - 1);
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(last.getCreated(), last.getId()).encode());
+        }
+        return requests;
     }
 
     @GetMapping("/{requestId}")
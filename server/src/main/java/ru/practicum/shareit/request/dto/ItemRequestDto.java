@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import ru.practicum.shareit.item.dto.ItemToRequestDto;
 
 import java.time.LocalDateTime;
@@ -8,10 +9,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class ItemRequestDto {
     private Long id;
     private String description;
     private Long owner;
     private LocalDateTime created;
     private List<ItemToRequestDto> items = new ArrayList<>();
+
+    public ItemRequestDto(Long id, String description, Long owner, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.owner = owner;
+        this.created = created;
+    }
 }
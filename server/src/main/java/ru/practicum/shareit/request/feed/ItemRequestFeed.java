@@ -0,0 +1,257 @@
+package ru.practicum.shareit.request.feed;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.FromSizeRequest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.TransactionCallbacks;
+import ru.practicum.shareit.item.dto.ItemToRequestDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Лента самых новых запросов вместе с предметами для первых страниц /requests/all.
+// Запросы хранятся в порядке created desc, id desc; запросы самого пользователя отбрасываются при чтении.
+// При переполнении вытесняются самые старые, поэтому лента всегда содержит все запросы новее
+// последнего хранимого, и продолжение страницы за её пределами читается из базы по ключу.
+// Лента ведётся в памяти одного экземпляра сервера: запросы и предметы, созданные на других экземплярах,
+// появляются в ней только после периодической перестройки. При нескольких экземплярах сервера ленту
+// следует отключить через shareit.request-feed.enabled=false.
+@Component
+@Slf4j
+public class ItemRequestFeed {
+    private static final Comparator<PageCursor> ORDER = Comparator.comparing(PageCursor::getTime)
+            .thenComparing(PageCursor::getId)
+            .reversed();
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final int capacity;
+    private final NavigableMap<PageCursor, Entry> entries = new TreeMap<>(ORDER);
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong modifications = new AtomicLong();
+    private final Counter hits;
+    private final Counter partialHits;
+    private final Counter misses;
+    private boolean ready;
+    // Лента содержит все запросы из базы, ничего не было вытеснено
+    private boolean complete;
+
+    public ItemRequestFeed(ItemRequestRepository itemRequestRepository,
+                           ItemRepository itemRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.request-feed.enabled:true}") boolean enabled,
+                           @Value("${shareit.request-feed.capacity:1000}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.hits = meterRegistry.counter("item.request.feed.reads", "result", "hit");
+        this.partialHits = meterRegistry.counter("item.request.feed.reads", "result", "partial");
+        this.misses = meterRegistry.counter("item.request.feed.reads", "result", "miss");
+        Gauge.builder("item.request.feed.requests", this, ItemRequestFeed::size)
+                .register(meterRegistry);
+    }
+
+    // Лента заменяется загруженной из базы. Если во время загрузки лента менялась, изменения могли не попасть
+    // в выборку, поэтому загруженные запросы объединяются с ними
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${shareit.request-feed.refresh-interval:PT5M}",
+            initialDelayString = "${shareit.request-feed.refresh-interval:PT5M}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long seen = modifications.get();
+        List<ItemRequestDto> requests = itemRequestRepository.findNewestItemRequests(FromSizeRequest.of(0, capacity));
+        Map<Long, List<ItemToRequestDto>> items = requests.isEmpty() ? Map.of() : itemRepository
+                .findItemsByRequests(requests.stream().map(ItemRequestDto::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(ItemToRequestDto::getRequestId));
+        lock.writeLock().lock();
+        try {
+            if (modifications.get() == seen) {
+                entries.clear();
+                entriesById.clear();
+            }
+            complete = requests.size() < capacity;
+            for (ItemRequestDto request : requests) {
+                Entry entry = put(request);
+                items.getOrDefault(request.getId(), List.of()).forEach(entry::putItem);
+            }
+            trim();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Лента запросов построена: {} запросов", size());
+    }
+
+    // Вызывается при создании запроса; лента меняется после фиксации транзакции
+    public void add(ItemRequestDto request) {
+        if (!enabled || request.getCreated() == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                modifications.incrementAndGet();
+                PageCursor key = key(request);
+                // Запрос старше вытесненных уже не попадёт в ленту, его прочитают из базы
+                if (!complete && !entries.isEmpty() && ORDER.compare(key, entries.lastKey()) > 0) {
+                    return;
+                }
+                Entry entry = put(request);
+                request.getItems().forEach(entry::putItem);
+                trim();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Вызывается при добавлении и изменении предмета, созданного по запросу
+    public void updateItem(ItemToRequestDto item) {
+        if (!enabled) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                modifications.incrementAndGet();
+                Entry entry = entriesById.get(item.getRequestId());
+                if (entry != null) {
+                    entry.putItem(item);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Страница чужих запросов после курсора или со смещением from. Null, если лента не может её обслужить:
+    // отключена, ещё не построена или курсор старше хранимых запросов.
+    public Page read(Long userId, PageCursor after, int from, int size) {
+        if (!enabled) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if (!ready || (after != null && !complete && !entries.isEmpty()
+                    && ORDER.compare(after, entries.lastKey()) >= 0)) {
+                misses.increment();
+                return null;
+            }
+            List<ItemRequestDto> requests = new ArrayList<>();
+            int skipped = 0;
+            for (Entry entry : after == null ? entries.values() : entries.tailMap(after, false).values()) {
+                if (entry.request.getOwner().equals(userId)) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                    continue;
+                }
+                requests.add(entry.copy());
+                if (requests.size() == size) {
+                    hits.increment();
+                    return new Page(requests, null, 0);
+                }
+            }
+            if (complete || entries.isEmpty()) {
+                hits.increment();
+                return new Page(requests, null, 0);
+            }
+            partialHits.increment();
+            return new Page(requests, entries.lastKey(), from - skipped);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Entry put(ItemRequestDto request) {
+        Entry entry = entriesById.get(request.getId());
+        if (entry == null) {
+            entry = new Entry(new ItemRequestDto(request.getId(), request.getDescription(), request.getOwner(),
+                    request.getCreated()));
+            entries.put(key(request), entry);
+            entriesById.put(request.getId(), entry);
+        }
+        return entry;
+    }
+
+    private void trim() {
+        while (entries.size() > capacity) {
+            Entry evicted = entries.pollLastEntry().getValue();
+            entriesById.remove(evicted.request.getId());
+            complete = false;
+        }
+    }
+
+    private static PageCursor key(ItemRequestDto request) {
+        return PageCursor.of(request.getCreated(), request.getId());
+    }
+
+    // Найденные в ленте запросы; если страница не заполнена, её продолжение читается из базы
+    // после курсора next с пропуском skip запросов
+    @Getter
+    @RequiredArgsConstructor
+    public static class Page {
+        private final List<ItemRequestDto> requests;
+        private final PageCursor next;
+        private final int skip;
+    }
+
+    private static class Entry {
+        private final ItemRequestDto request;
+        private final NavigableMap<Long, ItemToRequestDto> items = new TreeMap<>();
+
+        Entry(ItemRequestDto request) {
+            this.request = request;
+        }
+
+        void putItem(ItemToRequestDto item) {
+            items.put(item.getId(), new ItemToRequestDto(item.getId(), item.getName(), item.getDescription(),
+                    item.getAvailable(), item.getRequestId()));
+        }
+
+        ItemRequestDto copy() {
+            ItemRequestDto copy = new ItemRequestDto(request.getId(), request.getDescription(), request.getOwner(),
+                    request.getCreated());
+            copy.setItems(new ArrayList<>(items.values()));
+            return copy;
+        }
+    }
+}
@@ -1,20 +1,38 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    @Query(value = "select r from ItemRequest as r where r.ownerId = ?1 order by r.created desc")
-    List<ItemRequest> getItemRequestsByOwnerId(Long ownerId);
+    @Query(value = "select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.ownerId, " +
+            "r.created) from ItemRequest as r where r.ownerId = ?1 order by r.created desc")
+    List<ItemRequestDto> getItemRequestsByOwnerId(Long ownerId);
 
-    @Query(value = "select r from ItemRequest as r where r.ownerId <> ?1 order by r.created desc")
-    List<ItemRequest> getOtherUserItemRequests(Long userIdm, Pageable pageable);
+    @Query(value = "select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.ownerId, " +
+            "r.created) from ItemRequest as r where r.ownerId <> ?1 order by r.created desc, r.id desc")
+    List<ItemRequestDto> getOtherUserItemRequests(Long userIdm, Pageable pageable);
+
+    @Query(value = "select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.ownerId, " +
+            "r.created) from ItemRequest as r where r.ownerId <> ?1 and " +
+            "(r.created < ?2 or (r.created = ?2 and r.id < ?3)) order by r.created desc, r.id desc")
+    List<ItemRequestDto> getOtherUserItemRequestsBefore(Long userId, LocalDateTime created, Long requestId,
+                                                        Pageable pageable);
+
+    @Query(value = "select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.ownerId, " +
+            "r.created) from ItemRequest as r where r.created is not null order by r.created desc, r.id desc")
+    List<ItemRequestDto> findNewestItemRequests(Pageable pageable);
 
     @Query(value = "select r from ItemRequest as r where r.id = ?1 order by r.created desc")
     Optional<ItemRequest> getItemRequestById(Long itemRequestId);
+
+    @EntityGraph(ItemRequest.WITH_ITEMS)
+    Optional<ItemRequest> findWithItemsById(Long itemRequestId);
 }
@@ -9,7 +9,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getOwnRequestsByUser(Long userId);
 
-    List<ItemRequestDto> getAllRequestsOtherUsers(Integer from, Integer size, Long userId);
+    List<ItemRequestDto> getAllRequestsOtherUsers(Integer from, Integer size, Long userId, String after);
 
     ItemRequestDto getRequestById(Long userId, Long requestId);
 }
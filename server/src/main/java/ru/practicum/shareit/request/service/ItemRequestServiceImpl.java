@@ -1,18 +1,25 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.FromSizeRequest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.item.dto.ItemToRequestDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserResolver;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -20,37 +27,54 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
-    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final UserResolver userResolver;
+    private final ItemRequestFeed itemRequestFeed;
 
     @Override
     public ItemRequestDto addItemRequest(ItemRequestDto itemRequestDto, Long userId) {
         checkUserIsExist(userId);
         itemRequestDto.setOwner(userId);
-        itemRequestDto.setCreated(LocalDateTime.now());
+        // Время округляется до точности столбца, чтобы ключ ленты совпадал с сохранённым
+        itemRequestDto.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto);
-        return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
+        ItemRequestDto savedRequest = ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
+        itemRequestFeed.add(savedRequest);
+        return savedRequest;
     }
 
     @Override
     public List<ItemRequestDto> getOwnRequestsByUser(Long userId) {
         checkUserIsExist(userId);
-        return itemRequestRepository.getItemRequestsByOwnerId(userId).stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        return setItems(itemRequestRepository.getItemRequestsByOwnerId(userId));
     }
 
     @Override
-    public List<ItemRequestDto> getAllRequestsOtherUsers(Integer from, Integer size, Long userId) {
+    public List<ItemRequestDto> getAllRequestsOtherUsers(Integer from, Integer size, Long userId, String after) {
         checkUserIsExist(userId);
-        Pageable pageable = FromSizeRequest.of(from, size);
-        return itemRequestRepository.getOtherUserItemRequests(userId, pageable).stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        PageCursor cursor = PageCursor.parseTimed(after);
+        // Внутри транзакции могут быть видны незафиксированные запросы, которых ещё нет в ленте
+        ItemRequestFeed.Page page = TransactionSynchronizationManager.isActualTransactionActive()
+                ? null : itemRequestFeed.read(userId, cursor, cursor == null ? from : 0, size);
+        if (page != null) {
+            List<ItemRequestDto> requests = page.getRequests();
+            if (requests.size() < size && page.getNext() != null) {
+                requests.addAll(setItems(itemRequestRepository.getOtherUserItemRequestsBefore(userId,
+                        page.getNext().getTime(), page.getNext().getId(),
+                        FromSizeRequest.of(page.getSkip(), size - requests.size()))));
+            }
+            return requests;
+        }
+        if (cursor == null) {
+            return setItems(itemRequestRepository.getOtherUserItemRequests(userId, FromSizeRequest.of(from, size)));
+        }
+        return setItems(itemRequestRepository.getOtherUserItemRequestsBefore(userId, cursor.getTime(), cursor.getId(),
+                FromSizeRequest.of(0, size)));
     }
 
     @Override
     public ItemRequestDto getRequestById(Long userId, Long requestId) {
-        Optional<ItemRequest> optionalItemRequest = itemRequestRepository.getItemRequestById(requestId);
+        Optional<ItemRequest> optionalItemRequest = itemRequestRepository.findWithItemsById(requestId);
         checkUserIsExist(userId);
 
         if (optionalItemRequest.isEmpty()) {
@@ -60,9 +84,22 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toItemRequestDto(optionalItemRequest.get());
     }
 
-    private void checkUserIsExist(Long userId) {
-        if (userService.getUserById(userId) == null) {
-            throw new EntityNotFoundException("Пользователь не найден");
+    // Предметы для всей страницы запросов загружаются одним запросом
+    private List<ItemRequestDto> setItems(List<ItemRequestDto> requests) {
+        if (requests.isEmpty()) {
+            return requests;
+        }
+        Map<Long, List<ItemToRequestDto>> items = itemRepository.findItemsByRequests(requests.stream()
+                        .map(ItemRequestDto::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(ItemToRequestDto::getRequestId));
+        for (ItemRequestDto request : requests) {
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
         }
+        return requests;
+    }
+
+    private void checkUserIsExist(Long userId) {
+        userResolver.checkExists(userId);
     }
 }
@@ -1,20 +1,30 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 @RequestMapping(path = "/users")
 public class UserController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping()
     public UserDto postUser(@RequestBody UserDto userDto) {
@@ -29,10 +39,49 @@ public class UserController {
         return userService.updateUser(userId, user);
     }
 
+    // Без параметров список пишется в ответ JSON-массивом по мере чтения из базы, без сборки в памяти
     @GetMapping()
-    public List<UserDto> getAllUsers() {
+    public void getAllUsers(HttpServletResponse response) throws IOException {
         log.info("Получен запрос на получение всех пользователей");
-        return userService.getAllUsers().collect(Collectors.toList());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            userService.exportUsers(null, userDto -> writeUser(generator, userDto));
+            generator.writeEndArray();
+        }
+    }
+
+    @GetMapping(params = "size")
+    public List<UserDto> getUsers(@RequestParam(required = false) String after,
+                                  @RequestParam Integer size,
+                                  HttpServletResponse response) {
+        log.info("Получен запрос на получение {} пользователей после {}", size, after);
+        List<UserDto> users = userService.getUsers(after, size);
+        if (users.size() == size) {
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(users.get(users.size() - 1).getId()).encode());
+        }
+        return users;
+    }
+
+    // Выгрузка в формате NDJSON: по одному пользователю в строке, начиная сразу после курсора
+    @GetMapping(produces = NDJSON_VALUE)
+    public void exportUsers(@RequestParam(required = false) String after,
+                            HttpServletResponse response) throws IOException {
+        log.info("Получен запрос на выгрузку пользователей после {}", after);
+        response.setContentType(NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            userService.exportUsers(after, userDto -> {
+                writeUser(generator, userDto);
+                try {
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     @GetMapping("/{userId}")
@@ -46,4 +95,12 @@ public class UserController {
         log.info("Получен запрос на удаление пользователя с id {}", userId);
         userService.deleteUser(userId);
     }
+
+    private void writeUser(JsonGenerator generator, UserDto userDto) {
+        try {
+            generator.writeObject(userDto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.TransactionCallbacks;
+
+import java.time.Duration;
+
+// Идентификаторы существующих и неизвестных пользователей. Существующие попадают в кэш только
+// после фиксации транзакции, в которой выполнена проверка. Неизвестные записываются сразу:
+// после неудачной проверки транзакция обычно откатывается. Хранятся они недолго,
+// потому что их может занять новый пользователь.
+@Component
+public class UserExistenceCache {
+    private final Cache<Long, Boolean> known;
+    private final Cache<Long, Boolean> unknown;
+
+    public UserExistenceCache(
+            MeterRegistry meterRegistry,
+            @Value("${shareit.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${shareit.user-cache.expire-after-write:PT10M}") Duration expireAfterWrite,
+            @Value("${shareit.user-cache.negative-maximum-size:1000}") long negativeMaximumSize,
+            @Value("${shareit.user-cache.negative-expire-after-write:PT1M}") Duration negativeExpireAfterWrite) {
+        this.known = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(negativeMaximumSize)
+                .expireAfterWrite(negativeExpireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, known, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknown, "unknown-users");
+    }
+
+    public boolean isKnown(Long userId) {
+        return known.getIfPresent(userId) != null;
+    }
+
+    public boolean isUnknown(Long userId) {
+        return unknown.getIfPresent(userId) != null;
+    }
+
+    public void putKnown(Long userId) {
+        TransactionCallbacks.afterCommit(() -> known.put(userId, Boolean.TRUE));
+    }
+
+    public void putUnknown(Long userId) {
+        unknown.put(userId, Boolean.TRUE);
+    }
+
+    // Вызывается при создании пользователя: идентификатор больше не считается неизвестным
+    public void added(Long userId) {
+        unknown.invalidate(userId);
+        TransactionCallbacks.afterCommit(() -> unknown.invalidate(userId));
+    }
+
+    // Удаляет пользователя сразу и повторно после фиксации транзакции,
+    // чтобы не осталось значения, записанного до фиксации
+    public void deleted(Long userId) {
+        known.invalidate(userId);
+        TransactionCallbacks.afterCommit(() -> known.invalidate(userId));
+    }
+}
@@ -1,7 +1,31 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    String DTO_SELECT = "select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User as u ";
+
+    @EntityGraph(User.WITH_ITEMS)
+    Optional<User> findWithItemsById(Long userId);
+
+    @Query(DTO_SELECT + "where u.id > ?1 order by u.id asc")
+    List<UserDto> findUsersAfter(Long afterId, Pageable pageable);
+
+    // Выгрузка пользователей курсором без загрузки сущностей в контекст персистентности
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(DTO_SELECT + "where u.id > ?1 order by u.id asc")
+    Stream<UserDto> streamUserDtosAfter(Long afterId);
 }
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Проверка пользователя из заголовка X-Sharer-User-Id. Загруженные пользователи хранятся
+// в атрибутах текущего HTTP-запроса, поэтому каждый из них читается не больше одного раза за запрос,
+// а для проверки существования достаточно кэша между запросами.
+@Component
+@RequiredArgsConstructor
+public class UserResolver {
+    private static final String USERS_ATTRIBUTE = UserResolver.class.getName() + ".users";
+
+    private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
+
+    public void checkExists(long userId) {
+        if (requestUsers().containsKey(userId) || userExistenceCache.isKnown(userId)) {
+            return;
+        }
+        if (userExistenceCache.isUnknown(userId) || !userRepository.existsById(userId)) {
+            userExistenceCache.putUnknown(userId);
+            throw new EntityNotFoundException("Пользователь не найден");
+        }
+        userExistenceCache.putKnown(userId);
+    }
+
+    public UserDto getUser(long userId) {
+        Map<Long, UserDto> users = requestUsers();
+        UserDto user = users.get(userId);
+        if (user != null) {
+            return user;
+        }
+        Optional<UserDto> optionalUser = userExistenceCache.isUnknown(userId)
+                ? Optional.empty() : userRepository.findById(userId).map(UserMapper::toUserDto);
+        if (optionalUser.isEmpty()) {
+            userExistenceCache.putUnknown(userId);
+            throw new EntityNotFoundException("Пользователь не найден");
+        }
+        userExistenceCache.putKnown(userId);
+        users.put(userId, optionalUser.get());
+        return optionalUser.get();
+    }
+
+    // Вне HTTP-запроса (планировщик, импорт) пользователи не запоминаются
+    @SuppressWarnings("unchecked")
+    private Map<Long, UserDto> requestUsers() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new HashMap<>();
+        }
+        Map<Long, UserDto> users = (Map<Long, UserDto>) attributes.getAttribute(USERS_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (users == null) {
+            users = new HashMap<>();
+            attributes.setAttribute(USERS_ATTRIBUTE, users, RequestAttributes.SCOPE_REQUEST);
+        }
+        return users;
+    }
+}
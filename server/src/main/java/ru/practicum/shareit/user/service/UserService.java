@@ -3,8 +3,9 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDto addUser(UserDto userDto);
@@ -13,7 +14,9 @@ public interface UserService {
 
     UserDto getUserById(long userId);
 
-    Stream<UserDto> getAllUsers();
+    List<UserDto> getUsers(String after, Integer size);
+
+    void exportUsers(String after, Consumer<UserDto> consumer);
 
     Set<Item> getUserItems(long userId);
 
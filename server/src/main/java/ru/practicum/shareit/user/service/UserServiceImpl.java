@@ -2,17 +2,22 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.FromSizeRequest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.booking.stats.BookingStatsCounter;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @Service
@@ -20,11 +25,16 @@ import java.util.stream.Stream;
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final BookingStatsCounter bookingStatsCounter;
+    private final UserExistenceCache userExistenceCache;
 
     @Override
     public ru.practicum.shareit.user.dto.UserDto addUser(ru.practicum.shareit.user.dto.UserDto userDto) {
         User user = UserMapper.toUser(userDto);
-        return UserMapper.toUserDto(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        bookingStatsCounter.createStats(savedUser.getId());
+        userExistenceCache.added(savedUser.getId());
+        return UserMapper.toUserDto(savedUser);
     }
 
     @Override
@@ -53,14 +63,24 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(userOptional.get());
     }
 
+    // Страница пользователей по возрастанию id, начиная сразу после курсора
     @Override
-    public Stream<UserDto> getAllUsers() {
-        return new ArrayList<>(userRepository.findAll()).stream().map(UserMapper::toUserDto);
+    public List<UserDto> getUsers(String after, Integer size) {
+        return userRepository.findUsersAfter(afterId(after), FromSizeRequest.of(0, size));
+    }
+
+    // Пользователи читаются курсором и передаются потребителю по одному,
+    // поэтому расход памяти не зависит от размера таблицы
+    @Override
+    public void exportUsers(String after, Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = userRepository.streamUserDtosAfter(afterId(after))) {
+            users.forEach(consumer);
+        }
     }
 
     @Override
     public Set<Item> getUserItems(long userId) {
-        Optional<User> optionalUser = userRepository.findById(userId);
+        Optional<User> optionalUser = userRepository.findWithItemsById(userId);
         if (optionalUser.isEmpty()) {
             throw new EntityNotFoundException("Пользователь не найден");
         }
@@ -73,6 +93,12 @@ public class UserServiceImpl implements UserService {
             throw new EntityNotFoundException("Пользователь не найден");
         }
         userRepository.deleteById(userId);
+        bookingStatsCounter.deleteStats(userId);
+        userExistenceCache.deleted(userId);
+    }
+
+    private Long afterId(String after) {
+        return after == null ? 0L : PageCursor.parse(after).getId();
     }
 
 
@@ -0,0 +1,134 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian'::regconfig, coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('russian'::regconfig, coalesce(description, '')), 'B') ||
+    to_tsvector('simple'::regconfig, coalesce(name, '') || ' ' || coalesce(description, ''))
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING GIN (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING GIN (lower(description) gin_trgm_ops);
+
+-- Бронирования секционированы по start_time: помесячные секции создаёт BookingArchive, он же переносит
+-- в bookings_archive завершённые бронирования старше срока хранения. Обычная таблица из schema.sql
+-- один раз преобразуется в секционированную с переносом строк.
+-- Архив сам секционирован по месяцам, и у каждой секции есть проверка диапазона start_time и окончания:
+-- при расширении границы архива PostgreSQL доказывает её по ограничениям секций, не читая строки.
+-- Тело DO записано строкой, так как скрипт делится на команды по точке с запятой вне кавычек.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO 'DECLARE
+    boundary TIMESTAMP;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = ''bookings'' AND relkind = ''r'') THEN
+        LOCK TABLE bookings IN ACCESS EXCLUSIVE MODE;
+        SELECT date_trunc(''month'', LEAST(MIN(start_time), LOCALTIMESTAMP)) INTO boundary FROM bookings;
+        ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+        ALTER TABLE bookings_unpartitioned RENAME CONSTRAINT pk_booking TO pk_booking_unpartitioned;
+        CREATE TABLE bookings (
+            id BIGINT NOT NULL,
+            status VARCHAR(255) NOT NULL,
+            booker_id BIGINT NOT NULL,
+            item_id BIGINT NOT NULL,
+            start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+            end_time TIMESTAMP WITHOUT TIME ZONE,
+            stats_phase VARCHAR(16),
+            CONSTRAINT pk_booking PRIMARY KEY (id, start_time),
+            CONSTRAINT fk_booker_id FOREIGN KEY (booker_id) REFERENCES users (id),
+            CONSTRAINT fk_item_id_to_bookings FOREIGN KEY (item_id) REFERENCES items (id)
+        ) PARTITION BY RANGE (start_time);
+        EXECUTE format(''CREATE TABLE bookings_archive PARTITION OF bookings FOR VALUES FROM (MINVALUE) TO (%L) '' ||
+            ''PARTITION BY RANGE (start_time)'', boundary);
+        EXECUTE format(''CREATE TABLE bookings_archive_initial PARTITION OF bookings_archive '' ||
+            ''FOR VALUES FROM (MINVALUE) TO (%L)'', boundary);
+        EXECUTE format(''ALTER TABLE bookings_archive_initial ADD CONSTRAINT ck_bookings_archive_initial_range '' ||
+            ''CHECK (start_time < %L)'', boundary);
+        EXECUTE format(''ALTER TABLE bookings_archive_initial ADD CONSTRAINT ck_bookings_archive_initial_ended '' ||
+            ''CHECK (end_time < %L)'', boundary);
+        CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+        INSERT INTO bookings (id, status, booker_id, item_id, start_time, end_time, stats_phase)
+            SELECT id, status, booker_id, item_id, start_time, end_time, stats_phase FROM bookings_unpartitioned;
+        DROP TABLE bookings_unpartitioned;
+        CREATE INDEX idx_bookings_item_id_start_time ON bookings (item_id, start_time);
+        CREATE INDEX idx_bookings_item_id_status_start_time ON bookings (item_id, status, start_time);
+        CREATE INDEX idx_bookings_booker_id_start_time ON bookings (booker_id, start_time, id);
+        CREATE INDEX idx_bookings_booker_id_item_id_status_end_time ON bookings (booker_id, item_id, status, end_time);
+        CREATE INDEX idx_bookings_stats_phase_start_time ON bookings (stats_phase, start_time);
+        CREATE INDEX idx_bookings_stats_phase_end_time ON bookings (stats_phase, end_time);
+    END IF;
+END';
+
+-- Архив, созданный до секционирования по месяцам, становится первой секцией нового архива. Строки
+-- проверяются один раз при добавлении проверки диапазона; помесячным секциям она добавляется так же.
+DO 'DECLARE
+    bound TEXT;
+    month RECORD;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = ''bookings_archive'' AND relkind = ''r'') THEN
+        LOCK TABLE bookings IN ACCESS EXCLUSIVE MODE;
+        SELECT split_part(pg_get_expr(relpartbound, oid), chr(39), 2) INTO bound
+            FROM pg_class WHERE relname = ''bookings_archive'';
+        ALTER TABLE bookings DETACH PARTITION bookings_archive;
+        ALTER TABLE bookings_archive RENAME TO bookings_archive_initial;
+        ALTER TABLE bookings_archive_initial RENAME CONSTRAINT ck_bookings_archive_ended
+            TO ck_bookings_archive_initial_ended;
+        ALTER INDEX IF EXISTS idx_bookings_archive_time RENAME TO idx_bookings_archive_initial_time;
+        EXECUTE format(''ALTER TABLE bookings_archive_initial ADD CONSTRAINT ck_bookings_archive_initial_range '' ||
+            ''CHECK (start_time < %L)'', bound);
+        CREATE TABLE bookings_archive (LIKE bookings) PARTITION BY RANGE (start_time);
+        EXECUTE format(''ALTER TABLE bookings_archive ATTACH PARTITION bookings_archive_initial '' ||
+            ''FOR VALUES FROM (MINVALUE) TO (%L)'', bound);
+        EXECUTE format(''ALTER TABLE bookings ATTACH PARTITION bookings_archive FOR VALUES FROM (MINVALUE) TO (%L)'',
+            bound);
+        FOR month IN SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ''bookings'' AND c.relname ~ ''^bookings_p[0-9]{6}$'' LOOP
+            EXECUTE format(''ALTER TABLE %I ADD CONSTRAINT %I CHECK (start_time >= %L AND start_time < %L)'',
+                month.relname, ''ck_'' || month.relname || ''_range'', split_part(month.bound, chr(39), 2),
+                split_part(month.bound, chr(39), 4));
+        END LOOP;
+    END IF;
+END';
+
+-- Ограничение исключения нельзя объявить на секционированной таблице, поэтому оно создаётся в каждой
+-- секции, кроме архивной, и сравнивает бронирования только внутри секции: бронирования разных месяцев,
+-- например с 31 января по 2 февраля и с 1 февраля, оно не видит. Пересечения подтверждённых бронирований
+-- исключает BookingServiceImpl, подтверждающий бронирования одного предмета под блокировкой строки предмета;
+-- ограничение лишь страхует этот порядок внутри секции.
+-- Уже пересекающиеся строки не исправляются автоматически: запуск останавливается со списком
+-- первых пар, которые нужно отменить вручную.
+DO 'DECLARE
+    pairs TEXT;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_bookings_default_approved_overlap'') THEN
+        SELECT string_agg(pair, '', '') INTO pairs FROM (
+            SELECT a.id || ''/'' || b.id AS pair, row_number() OVER (ORDER BY a.id, b.id) AS n
+            FROM bookings_default a
+            JOIN bookings_default b ON b.item_id = a.item_id AND b.id > a.id AND b.status = ''APPROVED''
+                AND tsrange(b.start_time, b.end_time) && tsrange(a.start_time, a.end_time)
+            WHERE a.status = ''APPROVED'') conflicts
+        WHERE n <= 20;
+        IF pairs IS NOT NULL THEN
+            RAISE EXCEPTION ''Подтверждённые бронирования пересекаются, пары id: %'', pairs;
+        END IF;
+        ALTER TABLE bookings_default ADD CONSTRAINT ex_bookings_default_approved_overlap
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time) WITH &&)
+            WHERE (status = ''APPROVED'');
+    END IF;
+END';
+
+-- Архив дописывается по месяцам в порядке start_time, поэтому BRIN достаточно для выборок по времени
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_time ON bookings_archive USING BRIN (start_time, end_time);
+
+-- Последовательности сдвигаются за уже выданные identity идентификаторы; значение только растёт,
+-- поэтому повторный запуск и параллельные экземпляры не получают занятых блоков
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), (SELECT last_value FROM users_seq)));
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM items), (SELECT last_value FROM items_seq)));
+SELECT setval('bookings_seq',
+    GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings), (SELECT last_value FROM bookings_seq)));
+SELECT setval('comments_seq',
+    GREATEST((SELECT COALESCE(MAX(id), 0) FROM comments), (SELECT last_value FROM comments_seq)));
+
+-- Частичный индекс для WaitingBookingSweeper: неподтверждённых бронирований немного, и индекс остаётся маленьким
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_start_time ON bookings (start_time) WHERE status = 'WAITING';
@@ -17,6 +17,8 @@ CREATE TABLE IF NOT EXISTS items (
     CONSTRAINT fk_user_id FOREIGN KEY (user_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_user_id ON items (user_id, id);
+
     CREATE TABLE IF NOT EXISTS bookings (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     status VARCHAR(255) NOT NULL,
@@ -29,6 +31,12 @@ CREATE TABLE IF NOT EXISTS items (
     CONSTRAINT fk_item_id_to_bookings FOREIGN KEY (item_id) REFERENCES items (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_start_time ON bookings (item_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_status_start_time ON bookings (item_id, status, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id_start_time ON bookings (booker_id, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id_item_id_status_end_time
+    ON bookings (booker_id, item_id, status, end_time);
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     text VARCHAR(255) NOT NULL,
@@ -40,6 +48,8 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT fk_item_id_to_comments FOREIGN KEY (item_id) REFERENCES items (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_comments_item_id_created ON comments (item_id, created DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS item_requests (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     description VARCHAR(255) NOT NULL,
@@ -49,3 +59,82 @@ CREATE TABLE IF NOT EXISTS item_requests (
     CONSTRAINT pk_item_requests PRIMARY KEY (id),
     CONSTRAINT fk_item_id_to_item FOREIGN KEY (item_id) REFERENCES items (id)
 );
+
+CREATE INDEX IF NOT EXISTS idx_item_requests_created ON item_requests (created DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR(2048) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_outbox PRIMARY KEY (id)
+);
+
+-- Неудачные попытки публикации. Событие, исчерпавшее попытки, переносится в outbox_dead_letter,
+-- чтобы не задерживать следующие события
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS outbox_dead_letter (
+    id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR(2048) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts INT NOT NULL,
+    failed TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_outbox_dead_letter PRIMARY KEY (id)
+);
+
+-- Счётчики бронирований для GET /bookings/stats. Для существующих бронирований фаза и счётчики
+-- заполняются один раз: дальше их ведёт сервис, а смену фаз со временем - BookingStatsTicker.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS stats_phase VARCHAR(16);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_stats_phase_start_time ON bookings (stats_phase, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_stats_phase_end_time ON bookings (stats_phase, end_time);
+
+CREATE TABLE IF NOT EXISTS booking_stats (
+    user_id BIGINT NOT NULL,
+    booker_waiting BIGINT NOT NULL DEFAULT 0,
+    booker_approved BIGINT NOT NULL DEFAULT 0,
+    booker_rejected BIGINT NOT NULL DEFAULT 0,
+    booker_current BIGINT NOT NULL DEFAULT 0,
+    booker_future BIGINT NOT NULL DEFAULT 0,
+    owner_waiting BIGINT NOT NULL DEFAULT 0,
+    owner_approved BIGINT NOT NULL DEFAULT 0,
+    owner_rejected BIGINT NOT NULL DEFAULT 0,
+    owner_current BIGINT NOT NULL DEFAULT 0,
+    owner_future BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_booking_stats PRIMARY KEY (user_id)
+);
+
+UPDATE bookings SET stats_phase = CASE
+        WHEN end_time <= LOCALTIMESTAMP THEN 'PAST'
+        WHEN start_time <= LOCALTIMESTAMP THEN 'CURRENT'
+        ELSE 'FUTURE' END
+WHERE stats_phase IS NULL AND start_time IS NOT NULL AND end_time IS NOT NULL;
+
+INSERT INTO booking_stats (user_id, booker_waiting, booker_approved, booker_rejected, booker_current, booker_future,
+                           owner_waiting, owner_approved, owner_rejected, owner_current, owner_future)
+SELECT u.id,
+    (SELECT COUNT(*) FROM bookings b WHERE b.booker_id = u.id AND b.status = 'WAITING'),
+    (SELECT COUNT(*) FROM bookings b WHERE b.booker_id = u.id AND b.status = 'APPROVED'),
+    (SELECT COUNT(*) FROM bookings b WHERE b.booker_id = u.id AND b.status = 'REJECTED'),
+    (SELECT COUNT(*) FROM bookings b WHERE b.booker_id = u.id AND b.stats_phase = 'CURRENT'),
+    (SELECT COUNT(*) FROM bookings b WHERE b.booker_id = u.id AND b.stats_phase = 'FUTURE'),
+    (SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.user_id = u.id AND b.status = 'WAITING'),
+    (SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.user_id = u.id AND b.status = 'APPROVED'),
+    (SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.user_id = u.id AND b.status = 'REJECTED'),
+    (SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.user_id = u.id
+        AND b.stats_phase = 'CURRENT'),
+    (SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.user_id = u.id
+        AND b.stats_phase = 'FUTURE')
+FROM users u
+WHERE NOT EXISTS (SELECT 1 FROM booking_stats s WHERE s.user_id = u.id);
+
+-- Идентификаторы пользователей, предметов, бронирований и отзывов выдаются блоками по 50
+-- из последовательностей: это включает пакетные вставки Hibernate и импорт без лишних обращений к БД
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
@@ -12,9 +12,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.Service.BookingService;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,6 +26,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -100,7 +104,7 @@ class BookingControllerTest {
         bookingReturnDto.setId(1L);
         List<BookingReturnDto> result = List.of(bookingReturnDto);
 
-        when(bookingService.getUserBookingList(anyLong(), any(), anyInt(), anyInt())).thenReturn(result);
+        when(bookingService.getUserBookingList(anyLong(), any(), anyInt(), anyInt(), any())).thenReturn(result);
         mockMvc.perform(get("/bookings", 42L)
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk())
@@ -113,10 +117,37 @@ class BookingControllerTest {
         bookingReturnDto.setId(1L);
         List<BookingReturnDto> result = List.of(bookingReturnDto);
 
-        when(bookingService.getOwnerBookingList(anyLong(), any(), anyInt(), anyInt())).thenReturn(result);
+        when(bookingService.getOwnerBookingList(anyLong(), any(), anyInt(), anyInt(), any())).thenReturn(result);
         mockMvc.perform(get("/bookings/owner", 42L)
                         .header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(bookingReturnDto.getId()), Long.class));
     }
+
+    @Test
+    void getBookingStats() throws Exception {
+        BookingStatsDto stats = new BookingStatsDto(new BookingCountsDto(1, 2, 3, 4, 5), new BookingCountsDto());
+
+        when(bookingService.getBookingStats(anyLong())).thenReturn(stats);
+        mockMvc.perform(get("/bookings/stats")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.approved", is(2L), Long.class))
+                .andExpect(jsonPath("$.owner.waiting", is(0L), Long.class));
+    }
+
+    @Test
+    void getOwnerBookingsWhenPageIsFull() throws Exception {
+        bookingReturnDto = new BookingReturnDto();
+        bookingReturnDto.setId(1L);
+        bookingReturnDto.setStart(LocalDateTime.of(2030, 1, 1, 12, 0));
+        List<BookingReturnDto> result = List.of(bookingReturnDto);
+
+        when(bookingService.getOwnerBookingList(anyLong(), any(), anyInt(), anyInt(), any())).thenReturn(result);
+        mockMvc.perform(get("/bookings/owner?size=1", 42L)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor",
+                        PageCursor.of(bookingReturnDto.getStart(), bookingReturnDto.getId()).encode()));
+    }
 }
\ No newline at end of file
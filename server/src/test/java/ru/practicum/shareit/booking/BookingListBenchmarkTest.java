@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Замер задержки списков бронирований по состояниям для автора и владельца на заполненной базе.
+// Запуск: mvn test -Dtest=BookingListBenchmarkTest -Dshareit.benchmark=true
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingListBenchmarkTest {
+    private static final int ITEMS = 100;
+    private static final int BOOKINGS = 20000;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 500;
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User booker;
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeEach
+    void createEntity() {
+        owner = userRepository.save(user("BenchmarkOwner"));
+        booker = userRepository.save(user("BenchmarkBooker"));
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName("BenchmarkItem" + i);
+            item.setDescription("Benchmark description");
+            item.setAvailable(true);
+            item.setUserId(owner.getId());
+            itemIds.add(itemRepository.save(item).getId());
+        }
+        Random random = new Random(42);
+        BookingStatus[] statuses = BookingStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = now.plusHours(random.nextInt(24 * 365 * 2) - 24 * 365);
+            rows.add(new Object[]{statuses[random.nextInt(statuses.length)].name(), booker.getId(),
+                    itemIds.get(random.nextInt(ITEMS)), Timestamp.valueOf(start),
+                    Timestamp.valueOf(start.plusHours(1 + random.nextInt(72)))});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (status, booker_id, item_id, start_time, end_time) " +
+                "values (?, ?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void afterEach() {
+        for (Long itemId : itemIds) {
+            jdbcTemplate.update("delete from bookings where item_id = ?", itemId);
+            jdbcTemplate.update("delete from items where id = ?", itemId);
+        }
+        jdbcTemplate.update("delete from users where id in (?, ?)", owner.getId(), booker.getId());
+    }
+
+    @Test
+    void measureBookingLists() {
+        for (BookingRole role : BookingRole.values()) {
+            Long userId = role == BookingRole.BOOKER ? booker.getId() : owner.getId();
+            for (BookingState state : BookingState.values()) {
+                for (int i = 0; i < WARMUP; i++) {
+                    bookingRepository.findBookings(role, state, userId, LocalDateTime.now(), null, 0, 20);
+                }
+                long[] latencies = new long[ITERATIONS];
+                for (int i = 0; i < ITERATIONS; i++) {
+                    long started = System.nanoTime();
+                    int found = bookingRepository.findBookings(role, state, userId, LocalDateTime.now(), null, 0, 20)
+                            .size();
+                    latencies[i] = System.nanoTime() - started;
+                    assertTrue(found <= 20);
+                }
+                Arrays.sort(latencies);
+                log.info("{} {}: p50 {} мкс, p95 {} мкс", role, state,
+                        latencies[ITERATIONS / 2] / 1000, latencies[ITERATIONS * 95 / 100] / 1000);
+            }
+        }
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@gmail.com");
+        return user;
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.booking.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.exceptions.EntityNotAvailableException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Одновременные бронирования и подтверждения не должны давать пересечений. Нагрузочный вариант
+// запускается с -Dshareit.stress=true, количество операций задаётся свойством shareit.stress.operations.
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingConcurrencyTest {
+    private static final int ITEMS = 20;
+    private static final int THREADS = 16;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User booker;
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeEach
+    void createEntity() {
+        owner = userRepository.save(user("StressOwner"));
+        booker = userRepository.save(user("StressBooker"));
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName("StressItem" + i);
+            item.setDescription("Stress description");
+            item.setAvailable(true);
+            item.setUserId(owner.getId());
+            itemIds.add(itemRepository.save(item).getId());
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from outbox");
+        for (Long itemId : itemIds) {
+            jdbcTemplate.update("delete from bookings where item_id = ?", itemId);
+            jdbcTemplate.update("delete from items where id = ?", itemId);
+        }
+        jdbcTemplate.update("delete from users where id in (?, ?)", owner.getId(), booker.getId());
+    }
+
+    @Test
+    void approveSamePeriodConcurrently() throws Exception {
+        // Из одновременно подтверждаемых бронирований одного периода подтверждается только одно
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            BookingDto bookingDto = new BookingDto();
+            bookingDto.setItemId(itemIds.get(0));
+            bookingDto.setStart(start);
+            bookingDto.setEnd(start.plusDays(1));
+            bookingIds.add(bookingService.addBooking(bookingDto, booker.getId()).getId());
+        }
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long bookingId : bookingIds) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        bookingService.patchBooking(bookingId, owner.getId(), true);
+                        approved.incrementAndGet();
+                    } catch (EntityNotAvailableException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, approved.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertNoApprovedOverlaps(1);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.stress", matches = "true")
+    void addAndApproveConcurrently() throws Exception {
+        int operations = Integer.getInteger("shareit.stress.operations", 2000);
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < operations; i++) {
+                Random random = new Random(i);
+                Long itemId = itemIds.get(random.nextInt(ITEMS));
+                LocalDateTime start = base.plusHours(random.nextInt(24 * 60));
+                LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+                futures.add(executor.submit(() -> {
+                    try {
+                        BookingDto bookingDto = new BookingDto();
+                        bookingDto.setItemId(itemId);
+                        bookingDto.setStart(start);
+                        bookingDto.setEnd(end);
+                        BookingReturnDto booking = bookingService.addBooking(bookingDto, booker.getId());
+                        bookingService.patchBooking(booking.getId(), owner.getId(), true);
+                        approved.incrementAndGet();
+                    } catch (EntityNotAvailableException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Операций: {}, подтверждено: {}, отклонено: {}, пропускная способность: {} оп/с",
+                operations, approved.get(), rejected.get(), Math.round(operations / seconds));
+
+        assertEquals(operations, approved.get() + rejected.get());
+        assertTrue(approved.get() > 0);
+        assertNoApprovedOverlaps(approved.get());
+    }
+
+    private void assertNoApprovedOverlaps(int expectedApproved) {
+        Map<Long, List<BookingDto>> approvedByItem = bookingRepository.findBookingDtosByItems(itemIds).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .collect(Collectors.groupingBy(BookingDto::getItemId));
+        assertEquals(expectedApproved, approvedByItem.values().stream().mapToInt(List::size).sum());
+        for (List<BookingDto> bookings : approvedByItem.values()) {
+            bookings.sort(Comparator.comparing(BookingDto::getStart));
+            for (int i = 1; i < bookings.size(); i++) {
+                assertFalse(bookings.get(i).getStart().isBefore(bookings.get(i - 1).getEnd()),
+                        "Пересекаются бронирования " + bookings.get(i - 1).getId() + " и " + bookings.get(i).getId());
+            }
+        }
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@gmail.com");
+        return user;
+    }
+}
@@ -1,12 +1,14 @@
 package ru.practicum.shareit.booking.Service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
@@ -17,12 +19,14 @@ import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.dto.UserMapper;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +37,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class BookingServiceImplTest {
     private final BookingService bookingService;
+    private final UserExistenceCache userExistenceCache;
     private User user;
     private Item item;
     private Item item2;
@@ -63,8 +68,8 @@ class BookingServiceImplTest {
         booking.setItem(item);
         booking.setBooker(user);
         booking.setStatus(BookingStatus.APPROVED);
-        booking.setStart(LocalDateTime.now().minusDays(21));
-        booking.setEnd(LocalDateTime.now().minusDays(10));
+        booking.setStart(now().minusDays(21));
+        booking.setEnd(now().minusDays(10));
 
         booking2 = new Booking();
         booking2.setItem(item);
@@ -84,8 +89,8 @@ class BookingServiceImplTest {
         em.persist(item);
         BookingDto bookingDto = new BookingDto();
         bookingDto.setItemId(item.getId());
-        bookingDto.setStart(LocalDateTime.now().minusDays(21));
-        bookingDto.setEnd(LocalDateTime.now().minusDays(10));
+        bookingDto.setStart(now().minusDays(21));
+        bookingDto.setEnd(now().minusDays(10));
 
         EntityNotAvailableException thrown = Assertions
                 .assertThrows(EntityNotAvailableException.class, () ->
@@ -102,8 +107,8 @@ class BookingServiceImplTest {
         em.persist(item);
         BookingDto bookingDto = new BookingDto();
         bookingDto.setItemId(item.getId());
-        bookingDto.setStart(LocalDateTime.now().minusDays(21));
-        bookingDto.setEnd(LocalDateTime.now().minusDays(10));
+        bookingDto.setStart(now().minusDays(21));
+        bookingDto.setEnd(now().minusDays(10));
 
         EntityNotFoundException thrown = Assertions
                 .assertThrows(EntityNotFoundException.class, () ->
@@ -115,13 +120,17 @@ class BookingServiceImplTest {
     @Test
     void addBookingWhenCorrectValues() {
         // Проверка корректного случая
+        User owner = new User();
+        owner.setName("TestOwner");
+        owner.setEmail("TestOwner@gmail.com");
+        em.persist(owner);
         item.setAvailable(true);
+        item.setUserId(owner.getId());
         em.persist(item);
-        item.setUserId(100L);
         BookingDto bookingDto = new BookingDto();
         bookingDto.setItemId(item.getId());
-        bookingDto.setStart(LocalDateTime.now().minusDays(21));
-        bookingDto.setEnd(LocalDateTime.now().minusDays(10));
+        bookingDto.setStart(now().minusDays(21));
+        bookingDto.setEnd(now().minusDays(10));
         BookingReturnDto trueResult = new BookingReturnDto();
         trueResult.setStart(bookingDto.getStart());
         trueResult.setEnd(bookingDto.getEnd());
@@ -137,6 +146,60 @@ class BookingServiceImplTest {
         assertEquals(trueResult, result);
     }
 
+    @Test
+    void addBookingWhenItemIsAlreadyBooked() {
+        // Проверка пересечения с подтверждённым бронированием
+        User owner = new User();
+        owner.setName("TestOwner");
+        owner.setEmail("TestOwner@gmail.com");
+        em.persist(owner);
+        item.setUserId(owner.getId());
+        em.persist(item);
+        booking.setStart(now().plusDays(1));
+        booking.setEnd(now().plusDays(5));
+        em.persist(booking);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(now().plusDays(4));
+        bookingDto.setEnd(now().plusDays(6));
+
+        EntityNotAvailableException thrown = Assertions
+                .assertThrows(EntityNotAvailableException.class, () ->
+                        bookingService.addBooking(bookingDto, user.getId()));
+
+        assertEquals("Предмет уже забронирован на эти даты", thrown.getMessage());
+    }
+
+    @Test
+    void patchBookingWhenOverlapsApprovedBooking() {
+        // Проверка подтверждения бронирования, пересекающегося с уже подтверждённым
+        em.persist(item);
+        booking.setStart(now().plusDays(1));
+        booking.setEnd(now().plusDays(5));
+        em.persist(booking);
+        booking2.setStatus(BookingStatus.WAITING);
+        booking2.setStart(now().plusDays(4));
+        booking2.setEnd(now().plusDays(6));
+        em.persist(booking2);
+
+        EntityNotAvailableException thrown = Assertions
+                .assertThrows(EntityNotAvailableException.class, () ->
+                        bookingService.patchBooking(booking2.getId(), user.getId(), true));
+
+        assertEquals("Бронирование пересекается с подтверждённым бронированием", thrown.getMessage());
+    }
+
+    @Test
+    void getUserBookingListWhenUserNotFound() {
+        // Неизвестный пользователь попадает в кэш сразу, хотя транзакция сервиса откатывается
+        EntityNotFoundException thrown = Assertions
+                .assertThrows(EntityNotFoundException.class, () ->
+                        bookingService.getUserBookingList(-1L, "ALL", 0, 10, null));
+
+        assertEquals("Пользователь не найден", thrown.getMessage());
+        assertTrue(userExistenceCache.isUnknown(-1L));
+    }
+
     @Test
     void patchBookingWhenBookingNotFound() {
         // Проверка исключения, если бронирование не найдено
@@ -189,6 +252,26 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.REJECTED, result.getStatus());
     }
 
+    @Test
+    void patchBookingWhenBookingIsCanceled() {
+        // Отменённое бронирование нельзя ни подтвердить, ни отклонить
+        em.persist(item);
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.CANCELED);
+        em.persist(booking);
+
+        IllegalStateException approveThrown = Assertions
+                .assertThrows(IllegalStateException.class, () ->
+                        bookingService.patchBooking(booking.getId(), user.getId(), true));
+        IllegalStateException rejectThrown = Assertions
+                .assertThrows(IllegalStateException.class, () ->
+                        bookingService.patchBooking(booking.getId(), user.getId(), false));
+
+        assertEquals("Подтвердить можно только ожидающее бронирование", approveThrown.getMessage());
+        assertEquals("Бронирование отменено", rejectThrown.getMessage());
+        assertEquals(BookingStatus.CANCELED, em.find(Booking.class, booking.getId()).getStatus());
+    }
+
     @Test
     void getBookingWhenBookingNotFound() {
         // Проверка сценария, если бронирование не найдено
@@ -199,6 +282,25 @@ class BookingServiceImplTest {
         assertEquals("Бронирование не найдено", thrown.getMessage());
     }
 
+    @Test
+    void getBookingWhenAssociationsAreLazy() {
+        // Предмет и автор загружаются только планом выборки getBooking
+        em.persist(item);
+        em.persist(booking);
+        em.flush();
+        em.clear();
+
+        Booking loaded = em.find(Booking.class, booking.getId());
+        assertFalse(Hibernate.isInitialized(loaded.getItem()));
+        assertFalse(Hibernate.isInitialized(loaded.getBooker()));
+        em.clear();
+
+        BookingReturnDto result = bookingService.getBooking(booking.getId(), user.getId());
+
+        assertEquals(item.getName(), result.getItem().getName());
+        assertEquals(user.getName(), result.getBooker().getName());
+    }
+
     @Test
     void getBookingWhenUserIsNotOwner() {
         // Проверка сценария, если пользователь не является автором бронирования
@@ -257,15 +359,15 @@ class BookingServiceImplTest {
         // Сценарий запроса бронирований пользователя с пометкой FUTURE
         em.persist(item);
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         em.persist(booking);
         em.persist(booking2);
 
         BookingReturnDto bookingReturnDto2 = BookingMapper.toBookingReturnDto(booking2);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto2);
 
-        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "FUTURE", 0, 10);
+        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "FUTURE", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -275,8 +377,8 @@ class BookingServiceImplTest {
         // Сценарий запроса бронирований пользователя с пометкой ALL
         em.persist(item);
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         em.persist(booking);
         em.persist(booking2);
         BookingReturnDto bookingReturnDto2 = BookingMapper.toBookingReturnDto(booking2);
@@ -286,7 +388,7 @@ class BookingServiceImplTest {
         trueResult.add(bookingReturnDto2);
         trueResult.add(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "ALL", 0, 10);
+        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "ALL", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -296,8 +398,8 @@ class BookingServiceImplTest {
         // Сценарий запроса бронирований пользователя с пометкой WAITING
         em.persist(item);
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setStatus(BookingStatus.WAITING);
         em.persist(booking);
         em.persist(booking2);
@@ -305,7 +407,7 @@ class BookingServiceImplTest {
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "WAITING", 0, 10);
+        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "WAITING", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -315,8 +417,8 @@ class BookingServiceImplTest {
         // Сценарий запроса бронирований пользователя с пометкой REJECTED
         em.persist(item);
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setStatus(BookingStatus.REJECTED);
         em.persist(booking);
         em.persist(booking2);
@@ -324,7 +426,7 @@ class BookingServiceImplTest {
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "REJECTED", 0, 10);
+        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "REJECTED", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -334,8 +436,8 @@ class BookingServiceImplTest {
         // Сценарий запроса бронирований пользователя с пометкой CURRENT
         em.persist(item);
         booking2.setStatus(BookingStatus.APPROVED);
-        booking.setStart(LocalDateTime.now().minusDays(1));
-        booking.setEnd(LocalDateTime.now().plusDays(1));
+        booking.setStart(now().minusDays(1));
+        booking.setEnd(now().plusDays(1));
         booking.setStatus(BookingStatus.APPROVED);
         em.persist(booking);
         em.persist(booking2);
@@ -343,7 +445,7 @@ class BookingServiceImplTest {
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "CURRENT", 0, 10);
+        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "CURRENT", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -353,8 +455,8 @@ class BookingServiceImplTest {
         // Сценарий запроса бронирований пользователя с пометкой PAST
         em.persist(item);
         booking2.setStatus(BookingStatus.APPROVED);
-        booking.setStart(LocalDateTime.now().minusDays(1));
-        booking.setEnd(LocalDateTime.now().minusHours(4));
+        booking.setStart(now().minusDays(1));
+        booking.setEnd(now().minusHours(4));
         booking.setStatus(BookingStatus.APPROVED);
         em.persist(booking);
         em.persist(booking2);
@@ -362,7 +464,7 @@ class BookingServiceImplTest {
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "PAST", 0, 10);
+        List<BookingReturnDto> result = bookingService.getUserBookingList(user.getId(), "PAST", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -372,7 +474,7 @@ class BookingServiceImplTest {
         // Сценарий запроса с неизвестной пометкой
         EntityNotAvailableException thrown = Assertions
                 .assertThrows(EntityNotAvailableException.class, () ->
-                        bookingService.getUserBookingList(user.getId(), "SPECIFIC", 0, 10));
+                        bookingService.getUserBookingList(user.getId(), "SPECIFIC", 0, 10, null));
 
         assertEquals("Unknown state: UNSUPPORTED_STATUS", thrown.getMessage());
     }
@@ -389,8 +491,8 @@ class BookingServiceImplTest {
         em.persist(user2);
 
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setBooker(user2);
 
         em.persist(booking);
@@ -400,7 +502,7 @@ class BookingServiceImplTest {
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto2);
 
         List<BookingReturnDto> result = bookingService.getOwnerBookingList(
-                user.getId(), "FUTURE", 0, 10);
+                user.getId(), "FUTURE", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -417,8 +519,8 @@ class BookingServiceImplTest {
         em.persist(user2);
 
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setBooker(user2);
 
         em.persist(booking);
@@ -431,11 +533,79 @@ class BookingServiceImplTest {
         trueResult.add(bookingReturnDto2);
         trueResult.add(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "ALL", 0, 10);
+        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "ALL", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
 
+    @Test
+    void getOwnerBookingListWhenOwnerHasManyItems() {
+        // Страница применяется ко всем бронированиям владельца, а не к каждому предмету отдельно
+        em.persist(item);
+        em.persist(item2);
+
+        booking2.setStatus(BookingStatus.APPROVED);
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
+        Booking booking3 = new Booking();
+        booking3.setItem(item2);
+        booking3.setBooker(user);
+        booking3.setStatus(BookingStatus.APPROVED);
+        booking3.setStart(now().plusDays(1));
+        booking3.setEnd(now().plusDays(2));
+
+        em.persist(booking);
+        em.persist(booking2);
+        em.persist(booking3);
+
+        List<BookingReturnDto> firstPage = bookingService.getOwnerBookingList(user.getId(), "ALL", 0, 2, null);
+        List<BookingReturnDto> secondPage = bookingService.getOwnerBookingList(user.getId(), "ALL", 2, 2, null);
+
+        assertEquals(List.of(BookingMapper.toBookingReturnDto(booking2), BookingMapper.toBookingReturnDto(booking3)),
+                firstPage);
+        assertEquals(List.of(BookingMapper.toBookingReturnDto(booking)), secondPage);
+    }
+
+    @Test
+    void getOwnerBookingListWhenCursorIsPassed() {
+        // Следующая страница запрашивается по курсору последнего бронирования предыдущей
+        em.persist(item);
+        em.persist(item2);
+
+        booking2.setStatus(BookingStatus.APPROVED);
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
+        Booking booking3 = new Booking();
+        booking3.setItem(item2);
+        booking3.setBooker(user);
+        booking3.setStatus(BookingStatus.APPROVED);
+        booking3.setStart(now().plusDays(1));
+        booking3.setEnd(now().plusDays(2));
+
+        em.persist(booking);
+        em.persist(booking2);
+        em.persist(booking3);
+
+        List<BookingReturnDto> firstPage = bookingService.getOwnerBookingList(user.getId(), "ALL", 0, 2, null);
+        BookingReturnDto last = firstPage.get(firstPage.size() - 1);
+        String after = PageCursor.of(last.getStart(), last.getId()).encode();
+        List<BookingReturnDto> secondPage = bookingService.getOwnerBookingList(user.getId(), "ALL", 0, 2, after);
+
+        assertEquals(List.of(BookingMapper.toBookingReturnDto(booking)), secondPage);
+    }
+
+    @Test
+    void getUserBookingListWhenCursorHasNoTime() {
+        // Курсор без времени не подходит для списка бронирований
+        String after = PageCursor.of(1L).encode();
+
+        IllegalStateException thrown = Assertions
+                .assertThrows(IllegalStateException.class, () ->
+                        bookingService.getUserBookingList(user.getId(), "ALL", 0, 10, after));
+
+        assertEquals("Некорректный курсор: " + after, thrown.getMessage());
+    }
+
     @Test
     void getOwnerBookingListWhenBookingIsWaiting() {
         // Сценарий запроса бронирований пользователя с пометкой WAITING
@@ -448,8 +618,8 @@ class BookingServiceImplTest {
         em.persist(user2);
 
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setBooker(user2);
         booking.setStatus(BookingStatus.WAITING);
 
@@ -459,7 +629,7 @@ class BookingServiceImplTest {
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "WAITING", 0, 10);
+        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "WAITING", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -476,8 +646,8 @@ class BookingServiceImplTest {
         em.persist(user2);
 
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setBooker(user2);
         booking.setStatus(BookingStatus.REJECTED);
 
@@ -487,7 +657,7 @@ class BookingServiceImplTest {
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "REJECTED", 0, 10);
+        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "REJECTED", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -504,12 +674,12 @@ class BookingServiceImplTest {
         em.persist(user2);
 
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setBooker(user2);
         booking.setStatus(BookingStatus.REJECTED);
-        booking.setStart(LocalDateTime.now().minusDays(1));
-        booking.setEnd(LocalDateTime.now().plusDays(1));
+        booking.setStart(now().minusDays(1));
+        booking.setEnd(now().plusDays(1));
 
         em.persist(booking);
         em.persist(booking2);
@@ -517,7 +687,7 @@ class BookingServiceImplTest {
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "CURRENT", 0, 10);
+        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "CURRENT", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -534,19 +704,19 @@ class BookingServiceImplTest {
         em.persist(user2);
 
         booking2.setStatus(BookingStatus.APPROVED);
-        booking2.setStart(LocalDateTime.now().plusDays(10));
-        booking2.setEnd(LocalDateTime.now().plusDays(15));
+        booking2.setStart(now().plusDays(10));
+        booking2.setEnd(now().plusDays(15));
         booking.setBooker(user2);
         booking.setStatus(BookingStatus.APPROVED);
-        booking.setStart(LocalDateTime.now().minusDays(1));
-        booking.setEnd(LocalDateTime.now().minusHours(4));
+        booking.setStart(now().minusDays(1));
+        booking.setEnd(now().minusHours(4));
         em.persist(booking);
         em.persist(booking2);
 
         BookingReturnDto bookingReturnDto = BookingMapper.toBookingReturnDto(booking);
         List<BookingReturnDto> trueResult = List.of(bookingReturnDto);
 
-        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "PAST", 0, 10);
+        List<BookingReturnDto> result = bookingService.getOwnerBookingList(user.getId(), "PAST", 0, 10, null);
 
         assertEquals(trueResult, result);
     }
@@ -556,7 +726,12 @@ class BookingServiceImplTest {
         // Сценарий запроса с неизвестной пометкой
         EntityNotAvailableException thrown = Assertions
                 .assertThrows(EntityNotAvailableException.class, () ->
-                        bookingService.getUserBookingList(user.getId(), "SPECIFIC", 0, 10));
+                        bookingService.getUserBookingList(user.getId(), "SPECIFIC", 0, 10, null));
         assertEquals("Unknown state: UNSUPPORTED_STATUS", thrown.getMessage());
     }
-}
\ No newline at end of file
+
+    // База хранит время с точностью до микросекунд, списки бронирований читаются из неё проекцией
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
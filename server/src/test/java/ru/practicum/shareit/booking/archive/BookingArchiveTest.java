@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BookingArchiveTest {
+    private BookingPartitionRepository partitionRepository;
+    private final List<YearMonth> partitions = new ArrayList<>();
+    private final YearMonth month = YearMonth.now();
+
+    @BeforeEach
+    void setUp() {
+        partitionRepository = mock(BookingPartitionRepository.class);
+        when(partitionRepository.findMonthPartitions()).thenAnswer(invocation -> new ArrayList<>(partitions));
+        doAnswer(invocation -> partitions.add(invocation.getArgument(0)))
+                .when(partitionRepository).createMonthPartition(any());
+        doAnswer(invocation -> partitions.remove((YearMonth) invocation.getArgument(0)))
+                .when(partitionRepository).archiveMonthPartition(any(), any());
+    }
+
+    @Test
+    void maintainWhenPartitionsMissingAndOld() {
+        // Недостающие месяцы создаются до months-ahead, старые завершённые месяцы уходят в архив по порядку,
+        // месяц с незавершённым бронированием останавливает перенос
+        partitions.add(month.minusMonths(4));
+        partitions.add(month.minusMonths(3));
+        partitions.add(month.minusMonths(2));
+        when(partitionRepository.findArchiveBoundary())
+                .thenReturn(Optional.of(month.minusMonths(4).atDay(1).atStartOfDay()));
+        when(partitionRepository.hasUnfinishedBookings(eq(month.minusMonths(3)), any())).thenReturn(true);
+
+        archive("postgresql").maintain();
+
+        verify(partitionRepository).archiveMonthPartition(eq(month.minusMonths(4)), any());
+        verify(partitionRepository, never()).archiveMonthPartition(eq(month.minusMonths(3)), any());
+        verify(partitionRepository, never()).createMonthPartition(month.minusMonths(2));
+        verify(partitionRepository).createMonthPartition(month.minusMonths(1));
+        verify(partitionRepository).createMonthPartition(month.plusMonths(1));
+        verify(partitionRepository, never()).createMonthPartition(month.plusMonths(2));
+    }
+
+    @Test
+    void maintainWhenNothingToDo() {
+        // Все секции созданы, переносить нечего: таблица бронирований не блокируется
+        partitions.add(month.minusMonths(3));
+        partitions.add(month.minusMonths(2));
+        partitions.add(month.minusMonths(1));
+        partitions.add(month);
+        partitions.add(month.plusMonths(1));
+        when(partitionRepository.findArchiveBoundary())
+                .thenReturn(Optional.of(month.minusMonths(3).atDay(1).atStartOfDay()));
+        when(partitionRepository.hasUnfinishedBookings(eq(month.minusMonths(3)), any())).thenReturn(true);
+
+        archive("postgresql").maintain();
+
+        verify(partitionRepository, never()).lockBookings();
+        verify(partitionRepository, never()).createMonthPartition(any());
+        verify(partitionRepository, never()).archiveMonthPartition(any(), any());
+    }
+
+    @Test
+    void maintainWhenNotPostgres() {
+        BookingArchive bookingArchive = archive("h2");
+
+        bookingArchive.maintain();
+
+        verifyNoInteractions(partitionRepository);
+        assertNull(bookingArchive.getBoundary());
+    }
+
+    @Test
+    void getBoundaryAfterMaintain() {
+        LocalDateTime boundary = month.atDay(1).atStartOfDay();
+        when(partitionRepository.findArchiveBoundary()).thenReturn(Optional.of(boundary));
+        partitions.add(month);
+        partitions.add(month.plusMonths(1));
+        BookingArchive bookingArchive = archive("postgresql");
+
+        bookingArchive.maintain();
+
+        assertEquals(boundary, bookingArchive.getBoundary());
+    }
+
+    private BookingArchive archive(String platform) {
+        return new BookingArchive(partitionRepository, mock(PlatformTransactionManager.class), true,
+                Duration.ofDays(60), 1, platform);
+    }
+}
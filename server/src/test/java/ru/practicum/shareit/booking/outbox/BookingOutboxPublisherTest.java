@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.practicum.shareit.booking.Service.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@RecordApplicationEvents
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingOutboxPublisherTest {
+    private final BookingService bookingService;
+    private final BookingOutboxPublisher bookingOutboxPublisher;
+    private final OutboxRepository outboxRepository;
+    private final EntityManager em;
+    // Записанные события доступны только в рамках теста, поэтому внедряются в поле
+    @Autowired
+    private ApplicationEvents applicationEvents;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void createEntity() {
+        owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("Owner@gmail.com");
+        em.persist(owner);
+        booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("Booker@gmail.com");
+        em.persist(booker);
+        item = new Item();
+        item.setAvailable(true);
+        item.setName("TestItem");
+        item.setDescription("Test description");
+        item.setUserId(owner.getId());
+        em.persist(item);
+    }
+
+    @Test
+    void drainWhenBookingCreatedAndApproved() {
+        // Изменения бронирования попадают в outbox и публикуются по порядку
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        BookingReturnDto booking = bookingService.addBooking(bookingDto, booker.getId());
+        bookingService.patchBooking(booking.getId(), owner.getId(), true);
+
+        bookingOutboxPublisher.drain();
+
+        List<BookingEvent> events = applicationEvents.stream(BookingEvent.class).collect(Collectors.toList());
+        assertEquals(List.of(BookingEventType.CREATED, BookingEventType.APPROVED),
+                events.stream().map(BookingEvent::getType).collect(Collectors.toList()));
+        assertEquals(booking.getId(), events.get(1).getBooking().getId());
+        assertEquals(item.getId(), events.get(1).getBooking().getItemId());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void drainWhenStatusNotChanged() {
+        // Повторный отказ не меняет статус и не создаёт события
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        BookingReturnDto booking = bookingService.addBooking(bookingDto, booker.getId());
+        bookingService.patchBooking(booking.getId(), owner.getId(), false);
+        bookingService.patchBooking(booking.getId(), owner.getId(), false);
+
+        bookingOutboxPublisher.drain();
+
+        assertEquals(List.of(BookingEventType.CREATED, BookingEventType.REJECTED),
+                applicationEvents.stream(BookingEvent.class).map(BookingEvent::getType)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void drainWhenEventFailsRepeatedly() {
+        // Событие, которое не удаётся опубликовать, задерживает очередь только до исчерпания попыток,
+        // после чего переносится в outbox_dead_letter
+        OutboxMessage broken = new OutboxMessage();
+        broken.setEventType(BookingEventType.CREATED);
+        broken.setAggregateId(1L);
+        broken.setPayload("{");
+        broken.setCreated(LocalDateTime.now());
+        outboxRepository.save(broken);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        BookingReturnDto booking = bookingService.addBooking(bookingDto, booker.getId());
+
+        for (int i = 0; i < 5; i++) {
+            bookingOutboxPublisher.drain();
+        }
+        assertEquals(0, applicationEvents.stream(BookingEvent.class).count());
+
+        bookingOutboxPublisher.drain();
+
+        List<BookingEvent> events = applicationEvents.stream(BookingEvent.class).collect(Collectors.toList());
+        assertEquals(1, events.size());
+        assertEquals(booking.getId(), events.get(0).getBooking().getId());
+        assertEquals(0, outboxRepository.count());
+        Object[] deadLetter = (Object[]) em.createNativeQuery("select id, attempts from outbox_dead_letter")
+                .getSingleResult();
+        assertEquals(broken.getId(), ((Number) deadLetter[0]).longValue());
+        assertEquals(5, ((Number) deadLetter[1]).intValue());
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Service.BookingService;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingStatsTickerTest {
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final BookingStatsTicker bookingStatsTicker;
+    private final EntityManager em;
+    private UserDto owner;
+    private UserDto booker;
+    private Item item;
+
+    @BeforeEach
+    void createEntity() {
+        owner = new UserDto();
+        owner.setName("Owner");
+        owner.setEmail("Owner@gmail.com");
+        owner = userService.addUser(owner);
+        booker = new UserDto();
+        booker.setName("Booker");
+        booker.setEmail("Booker@gmail.com");
+        booker = userService.addUser(booker);
+        item = new Item();
+        item.setAvailable(true);
+        item.setName("TestItem");
+        item.setDescription("Test description");
+        item.setUserId(owner.getId());
+        em.persist(item);
+    }
+
+    @Test
+    void getBookingStatsWhenBookingAddedAndApproved() {
+        // Счётчики статусов меняются вместе с бронированием
+        BookingReturnDto booking = addBooking(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+
+        assertEquals(new BookingStatsDto(new BookingCountsDto(1, 0, 0, 0, 1), new BookingCountsDto()),
+                bookingService.getBookingStats(booker.getId()));
+
+        bookingService.patchBooking(booking.getId(), owner.getId(), true);
+
+        assertEquals(new BookingStatsDto(new BookingCountsDto(), new BookingCountsDto(0, 1, 0, 0, 1)),
+                bookingService.getBookingStats(owner.getId()));
+    }
+
+    @Test
+    void tickWhenBookingStarted() {
+        // Тик переводит начавшиеся бронирования из FUTURE в CURRENT, а закончившиеся - в PAST
+        BookingReturnDto started = addBooking(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        BookingReturnDto ended = addBooking(LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4));
+        addBooking(LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6));
+        moveBooking(started.getId(), LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        moveBooking(ended.getId(), LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(1));
+
+        bookingStatsTicker.tick();
+
+        assertEquals(new BookingCountsDto(3, 0, 0, 1, 1), bookingService.getBookingStats(booker.getId()).getBooker());
+        assertEquals(new BookingCountsDto(3, 0, 0, 1, 1), bookingService.getBookingStats(owner.getId()).getOwner());
+    }
+
+    private BookingReturnDto addBooking(LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingService.addBooking(bookingDto, booker.getId());
+    }
+
+    // Имитирует течение времени: сдвигает уже сохранённое бронирование, не меняя его фазу
+    private void moveBooking(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        em.flush();
+        em.createQuery("update Booking as b set b.start = ?1, b.end = ?2 where b.id = ?3")
+                .setParameter(1, start)
+                .setParameter(2, end)
+                .setParameter(3, bookingId)
+                .executeUpdate();
+        em.clear();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking.sweep;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.Service.BookingService;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingReturnDto;
+import ru.practicum.shareit.booking.outbox.BookingEventType;
+import ru.practicum.shareit.booking.outbox.OutboxMessage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class WaitingBookingSweeperTest {
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final WaitingBookingSweeper waitingBookingSweeper;
+    private final EntityManager em;
+    private UserDto owner;
+    private UserDto booker;
+    private Item item;
+
+    @BeforeEach
+    void createEntity() {
+        owner = new UserDto();
+        owner.setName("Owner");
+        owner.setEmail("Owner@gmail.com");
+        owner = userService.addUser(owner);
+        booker = new UserDto();
+        booker.setName("Booker");
+        booker.setEmail("Booker@gmail.com");
+        booker = userService.addUser(booker);
+        item = new Item();
+        item.setAvailable(true);
+        item.setName("TestItem");
+        item.setDescription("Test description");
+        item.setUserId(owner.getId());
+        em.persist(item);
+    }
+
+    @Test
+    void sweepWhenWaitingBookingStarted() {
+        // Отменяются только неподтверждённые бронирования, время начала которых прошло
+        BookingReturnDto started = addBooking(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        BookingReturnDto approved = addBooking(LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4));
+        BookingReturnDto future = addBooking(LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6));
+        bookingService.patchBooking(approved.getId(), owner.getId(), true);
+        moveBooking(started.getId(), LocalDateTime.now().minusHours(1));
+        moveBooking(approved.getId(), LocalDateTime.now().minusHours(1));
+
+        waitingBookingSweeper.sweep();
+
+        assertEquals(BookingStatus.CANCELED, em.find(Booking.class, started.getId()).getStatus());
+        assertEquals(BookingStatus.APPROVED, em.find(Booking.class, approved.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, em.find(Booking.class, future.getId()).getStatus());
+        assertEquals(new BookingCountsDto(1, 1, 0, 0, 3), bookingService.getBookingStats(booker.getId()).getBooker());
+        List<OutboxMessage> canceled = em.createQuery("select m from OutboxMessage as m where m.eventType = ?1",
+                        OutboxMessage.class)
+                .setParameter(1, BookingEventType.CANCELED)
+                .getResultList();
+        assertEquals(1, canceled.size());
+        assertEquals(started.getId(), canceled.get(0).getAggregateId());
+    }
+
+    private BookingReturnDto addBooking(LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingService.addBooking(bookingDto, booker.getId());
+    }
+
+    // Имитирует течение времени: переносит начало уже сохранённого бронирования в прошлое
+    private void moveBooking(Long bookingId, LocalDateTime start) {
+        em.flush();
+        em.createQuery("update Booking as b set b.start = ?1 where b.id = ?2")
+                .setParameter(1, start)
+                .setParameter(2, bookingId)
+                .executeUpdate();
+        em.clear();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.booking.timeline;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemTimelineTest {
+    private final LocalDateTime now = LocalDateTime.of(2022, 10, 1, 12, 0);
+
+    @Test
+    void lastAndNextWhenEmpty() {
+        ItemTimeline timeline = ItemTimeline.of(List.of());
+
+        assertEquals(Optional.empty(), timeline.last(now));
+        assertEquals(Optional.empty(), timeline.next(now));
+    }
+
+    @Test
+    void lastAndNextWhenCorrect() {
+        // Проверяем выбор последнего и следующего бронирования
+        ItemTimeline timeline = ItemTimeline.of(List.of(
+                booking(1L, now.plusDays(5), now.plusDays(6)),
+                booking(2L, now.minusDays(5), now.minusDays(4)),
+                booking(3L, now.minusDays(2), now.minusDays(1)),
+                booking(4L, now.plusDays(1), now.plusDays(2)),
+                booking(5L, null, null)));
+
+        assertEquals(4, timeline.size());
+        assertEquals(3L, timeline.last(now).orElseThrow().getId());
+        assertEquals(4L, timeline.next(now).orElseThrow().getId());
+    }
+
+    @Test
+    void withReplacesBookingWithSameId() {
+        // Проверяем замену бронирования при изменении
+        ItemTimeline timeline = ItemTimeline.of(List.of(booking(1L, now.minusDays(2), now.minusDays(1))));
+        BookingDto updated = booking(1L, now.plusDays(1), now.plusDays(2));
+        updated.setStatus(BookingStatus.APPROVED);
+
+        ItemTimeline result = timeline.with(updated);
+
+        assertEquals(1, result.size());
+        assertEquals(Optional.empty(), result.last(now));
+        assertEquals(BookingStatus.APPROVED, result.next(now).orElseThrow().getStatus());
+    }
+
+    private BookingDto booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingDto(id, BookingStatus.WAITING, 1L, 1L, start, end, "TestItem");
+    }
+}
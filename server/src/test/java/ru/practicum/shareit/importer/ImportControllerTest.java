@@ -0,0 +1,60 @@
+package ru.practicum.shareit.importer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.importer.dto.ImportResultDto;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@WebMvcTest(ImportController.class)
+class ImportControllerTest {
+    @MockBean
+    private ImportService importService;
+    @Autowired
+    private ImportController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(controller)
+                .build();
+    }
+
+    @Test
+    void importData() throws Exception {
+        ImportResultDto result = new ImportResultDto();
+        result.setUsers(1);
+
+        when(importService.importData(any())).thenReturn(result);
+
+        mockMvc.perform(post("/import")
+                        .header("X-Sharer-User-Id", 0)
+                        .contentType("application/x-ndjson")
+                        .content("{\"type\":\"user\",\"name\":\"User\",\"email\":\"user@gmail.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", is(1)));
+    }
+
+    @Test
+    void importDataWhenNotService() throws Exception {
+        mockMvc.perform(post("/import")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType("application/x-ndjson")
+                        .content("{}"))
+                .andExpect(status().isNotFound());
+    }
+}
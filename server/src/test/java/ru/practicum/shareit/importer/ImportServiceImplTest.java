@@ -0,0 +1,135 @@
+package ru.practicum.shareit.importer;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.shareit.booking.Service.BookingService;
+import ru.practicum.shareit.booking.archive.BookingArchive;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.importer.dto.ImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ImportServiceImplTest {
+    private final ImportService importService;
+    private final BookingService bookingService;
+    private final EntityManager em;
+    @MockBean
+    private BookingArchive bookingArchive;
+
+    @Test
+    void importDataWhenRecordsReferToEachOther() throws IOException {
+        // Строки ссылаются на записи выше по файлу, ошибочные строки пропускаются с указанием номера
+        String start = LocalDateTime.now().plusDays(1).withNano(0).toString();
+        String end = LocalDateTime.now().plusDays(2).withNano(0).toString();
+        String data = String.join("\n",
+                "{\"type\":\"user\",\"ref\":\"u1\",\"name\":\"Owner\",\"email\":\"owner@import.ru\"}",
+                "{\"type\":\"user\",\"ref\":\"u2\",\"name\":\"Booker\",\"email\":\"booker@import.ru\"}",
+                "{\"type\":\"user\",\"ref\":\"u3\",\"name\":\"Copy\",\"email\":\"owner@import.ru\"}",
+                "{\"type\":\"item\",\"ref\":\"i1\",\"name\":\"Drill\",\"description\":\"Drill\"," +
+                        "\"available\":true,\"ownerRef\":\"u1\"}",
+                "{\"type\":\"booking\",\"itemRef\":\"i1\",\"bookerRef\":\"u2\",\"status\":\"approved\"," +
+                        "\"start\":\"" + start + "\",\"end\":\"" + end + "\"}",
+                "{\"type\":\"booking\",\"itemRef\":\"i1\",\"bookerRef\":\"u1\"," +
+                        "\"start\":\"" + start + "\",\"end\":\"" + end + "\"}",
+                "",
+                "{\"type\":\"comment\",\"itemRef\":\"i1\",\"authorRef\":\"u2\",\"text\":\"Good\"}",
+                "not json");
+
+        ImportResultDto result = importService.importData(
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getUsers());
+        assertEquals(1, result.getItems());
+        assertEquals(1, result.getBookings());
+        assertEquals(1, result.getComments());
+        assertEquals(3, result.getFailed());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        assertEquals(6L, result.getErrors().get(1).getLine());
+        assertEquals(9L, result.getErrors().get(2).getLine());
+
+        Long bookerId = em.createQuery("select u from User as u where u.email = ?1", User.class)
+                .setParameter(1, "booker@import.ru").getSingleResult().getId();
+        assertEquals(new BookingCountsDto(0, 1, 0, 0, 1), bookingService.getBookingStats(bookerId).getBooker());
+        assertEquals(1, bookingService.getUserBookingList(bookerId, "ALL", 0, 10, null).size());
+    }
+
+    @Test
+    void importDataWhenApprovedBookingsOverlap() throws IOException {
+        // Пересечения подтверждённых бронирований ищутся внутри пакета и среди уже сохранённых бронирований,
+        // ошибка указывает строку, остальные строки пакета импортируются
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        String data = String.join("\n",
+                "{\"type\":\"user\",\"ref\":\"u1\",\"name\":\"Owner\",\"email\":\"owner@import.ru\"}",
+                "{\"type\":\"user\",\"ref\":\"u2\",\"name\":\"Booker\",\"email\":\"booker@import.ru\"}",
+                "{\"type\":\"item\",\"ref\":\"i1\",\"name\":\"Drill\",\"description\":\"Drill\"," +
+                        "\"available\":true,\"ownerRef\":\"u1\"}",
+                booking("approved", base, base.plusDays(2)),
+                booking("approved", base.plusDays(1), base.plusDays(3)),
+                booking("waiting", base.plusDays(1), base.plusDays(3)),
+                booking("approved", base.plusDays(2), base.plusDays(3)));
+
+        ImportResultDto result = importService.importData(
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.getBookings());
+        assertEquals(1, result.getFailed());
+        assertEquals(5L, result.getErrors().get(0).getLine());
+
+        Long itemId = em.createQuery("select i from Item as i where i.name = ?1", Item.class)
+                .setParameter(1, "Drill").getSingleResult().getId();
+        Long bookerId = em.createQuery("select u from User as u where u.email = ?1", User.class)
+                .setParameter(1, "booker@import.ru").getSingleResult().getId();
+        String again = "{\"type\":\"booking\",\"itemId\":" + itemId + ",\"bookerId\":" + bookerId +
+                ",\"status\":\"approved\",\"start\":\"" + base.plusDays(1) + "\",\"end\":\"" +
+                base.plusDays(2).plusHours(1) + "\"}";
+
+        result = importService.importData(new ByteArrayInputStream(again.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0, result.getBookings());
+        assertEquals(1, result.getFailed());
+        assertEquals(1L, result.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void importDataWhenBookingCrossesArchiveBoundary() throws IOException {
+        // Бронирование, начатое до границы архива и завершённое после неё, не пройдёт проверку архивной секции
+        LocalDateTime boundary = LocalDateTime.now().minusMonths(6).withDayOfMonth(1).toLocalDate().atStartOfDay();
+        when(bookingArchive.getBoundary()).thenReturn(boundary);
+        String data = String.join("\n",
+                "{\"type\":\"user\",\"ref\":\"u1\",\"name\":\"Owner\",\"email\":\"owner@import.ru\"}",
+                "{\"type\":\"user\",\"ref\":\"u2\",\"name\":\"Booker\",\"email\":\"booker@import.ru\"}",
+                "{\"type\":\"item\",\"ref\":\"i1\",\"name\":\"Drill\",\"description\":\"Drill\"," +
+                        "\"available\":true,\"ownerRef\":\"u1\"}",
+                booking("approved", boundary.minusDays(2), boundary.minusDays(1)),
+                booking("approved", boundary.minusDays(1), boundary.plusDays(1)),
+                booking("approved", boundary.plusDays(1), boundary.plusDays(2)));
+
+        ImportResultDto result = importService.importData(
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getBookings());
+        assertEquals(1, result.getFailed());
+        assertEquals(5L, result.getErrors().get(0).getLine());
+    }
+
+    private String booking(String status, LocalDateTime start, LocalDateTime end) {
+        return "{\"type\":\"booking\",\"itemRef\":\"i1\",\"bookerRef\":\"u2\",\"status\":\"" + status + "\"," +
+                "\"start\":\"" + start + "\",\"end\":\"" + end + "\"}";
+    }
+}
@@ -11,17 +11,25 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -83,6 +91,39 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.text", is(commentDto.getText()), String.class));
     }
 
+    @Test
+    void getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        ItemAvailabilityDto availability = new ItemAvailabilityDto(1L, from, from.plusDays(2),
+                List.of(new IntervalDto(from, from.plusDays(1))), List.of(new IntervalDto(from.plusDays(1),
+                from.plusDays(2))));
+
+        when(itemService.getAvailability(1L, from, from.plusDays(2))).thenReturn(availability);
+
+        mockMvc.perform(get("/items/1/availability?from=2030-01-01T00:00:00&to=2030-01-03T00:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1)))
+                .andExpect(jsonPath("$.busy", hasSize(1)))
+                .andExpect(jsonPath("$.busy[0]", hasSize(2)))
+                .andExpect(jsonPath("$.free", hasSize(1)));
+    }
+
+    @Test
+    void getComments() throws Exception {
+        CommentDto commentDto = new CommentDto(1L, "Test text", 1L, "Test author",
+                LocalDateTime.of(2022, 10, 1, 12, 0));
+
+        when(itemService.getComments(anyLong(), any(), anyInt())).thenReturn(List.of(commentDto));
+
+        mockMvc.perform(get("/items/1/comments?size=1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor",
+                        PageCursor.of(commentDto.getCreated(), commentDto.getId()).encode()))
+                .andExpect(jsonPath("$[0].id", is(commentDto.getId()), Long.class));
+    }
+
     @Test
     void updateItem() throws Exception {
         itemDto = new ItemDto();
@@ -112,7 +153,7 @@ class ItemControllerTest {
         itemDto.setAvailable(true);
         List<ItemDto> result = List.of(itemDto);
 
-        when(itemService.searchItem(anyString(), anyInt(), anyInt())).thenReturn(result.stream());
+        when(itemService.searchItem(anyString(), anyInt(), anyInt(), any())).thenReturn(result.stream());
 
         mockMvc.perform(get("/items/search?text=search", 42L)
                         .header("X-Sharer-User-Id", 1))
@@ -158,4 +199,28 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportItems() throws Exception {
+        itemDto = new ItemDto();
+        itemDto.setId(1L);
+        itemDto.setName("Test name");
+        ItemDto itemDto2 = new ItemDto();
+        itemDto2.setId(2L);
+        itemDto2.setName("Test name 2");
+
+        doAnswer(invocation -> {
+            Consumer<ItemDto> consumer = invocation.getArgument(0);
+            consumer.accept(itemDto);
+            consumer.accept(itemDto2);
+            return null;
+        }).when(itemService).exportItems(any());
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 0))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].name", is(itemDto2.getName()), String.class));
+    }
+}
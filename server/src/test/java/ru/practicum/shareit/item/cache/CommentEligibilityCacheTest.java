@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentEligibilityCacheTest {
+    private final CommentEligibilityCache cache =
+            new CommentEligibilityCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+    @Test
+    void isEligibleWhenPut() {
+        cache.put(1L, 2L);
+
+        assertTrue(cache.isEligible(1L, 2L));
+        assertFalse(cache.isEligible(2L, 1L));
+    }
+
+    @Test
+    void isEligibleWhenEvicted() {
+        cache.put(1L, 2L);
+        cache.evict(1L, 2L);
+
+        assertFalse(cache.isEligible(1L, 2L));
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.item.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemViewCacheTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemViewCache cache = new ItemViewCache(meterRegistry, 100, Duration.ofMinutes(10));
+
+    @Test
+    void getWhenCached() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, ItemView> loader = id -> {
+            loads.incrementAndGet();
+            return view(id);
+        };
+
+        assertEquals(1L, cache.get(1L, loader).getItem().getId());
+        assertEquals(1L, cache.get(1L, loader).getItem().getId());
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getWhenEvicted() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, ItemView> loader = id -> {
+            loads.incrementAndGet();
+            return view(id);
+        };
+
+        cache.get(1L, loader);
+        cache.evict(1L);
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getWhenConcurrentMisses() throws Exception {
+        // Одновременные промахи по одному ключу должны выполнить одну загрузку
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Long, ItemView> loader = id -> {
+            loads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return view(id);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ItemView>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> cache.get(1L, loader)));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<ItemView> future : futures) {
+                assertEquals(1L, future.get(5, TimeUnit.SECONDS).getItem().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    private ItemView view(Long id) {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(id);
+        itemDto.setName("Test name");
+        return new ItemView(1L, itemDto);
+    }
+}
@@ -7,24 +7,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.item.Comment;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.User;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -37,6 +41,7 @@ class ItemServiceImplTest {
 
     private final EntityManager em;
     private final ItemService itemService;
+    private final ItemSearchIndex itemSearchIndex;
     private User user;
     private Item item;
     private ItemDto itemDto;
@@ -105,6 +110,35 @@ class ItemServiceImplTest {
         assertEquals("Предмет отсутсвует у данного пользователя", thrown.getMessage());
     }
 
+    @Test
+    void updateItemWhenUserIsNotOwner() {
+        // Проверяем отказ, если предмет принадлежит другому пользователю
+        User user2 = new User();
+        user2.setName("TestUser2");
+        user2.setEmail("Test2@gmail.com");
+        em.persist(user2);
+        item.setUserId(user.getId());
+        em.persist(item);
+
+        EntityNotFoundException thrown = Assertions
+                .assertThrows(EntityNotFoundException.class, () ->
+                        itemService.updateItem(itemDto, item.getId(), user2.getId()));
+
+        assertEquals("Предмет отсутсвует у данного пользователя", thrown.getMessage());
+    }
+
+    @Test
+    void updateItemWhenUserNotFound() {
+        item.setUserId(user.getId());
+        em.persist(item);
+
+        EntityNotFoundException thrown = Assertions
+                .assertThrows(EntityNotFoundException.class, () ->
+                        itemService.updateItem(itemDto, item.getId(), 100L));
+
+        assertEquals("Пользователь не найден", thrown.getMessage());
+    }
+
     @Test
     void updateItemWhenUpdateName() {
         // Проверка обновления имени
@@ -112,11 +146,9 @@ class ItemServiceImplTest {
         itemDto.setAvailable(true);
         itemDto.setName("UpdateName");
         itemDto.setDescription(item.getDescription());
+        item.setUserId(user.getId());
         em.persist(item);
         itemDto.setId(item.getId());
-        Set<Item> items = Set.of(item);
-        user.setUserItems(items);
-
         ItemDto updatedItemDto = itemService.updateItem(itemDto, item.getId(), user.getId());
 
         assertEquals(itemDto, updatedItemDto);
@@ -129,11 +161,9 @@ class ItemServiceImplTest {
         itemDto.setAvailable(true);
         itemDto.setName(item.getName());
         itemDto.setDescription("Update description");
+        item.setUserId(user.getId());
         em.persist(item);
         itemDto.setId(item.getId());
-        Set<Item> items = Set.of(item);
-        user.setUserItems(items);
-
         ItemDto updatedItemDto = itemService.updateItem(itemDto, item.getId(), user.getId());
 
         assertEquals(itemDto, updatedItemDto);
@@ -147,11 +177,9 @@ class ItemServiceImplTest {
         itemDto.setName(item.getName());
         itemDto.setDescription(item.getDescription());
 
+        item.setUserId(user.getId());
         em.persist(item);
         itemDto.setId(item.getId());
-        Set<Item> items = Set.of(item);
-        user.setUserItems(items);
-
         ItemDto updatedItemDto = itemService.updateItem(itemDto, item.getId(), user.getId());
 
         assertEquals(itemDto, updatedItemDto);
@@ -178,16 +206,48 @@ class ItemServiceImplTest {
         em.persist(comment);
         List<CommentDto> comments = List.of(CommentMapper.toCommentDto(comment));
         itemDto.setComments(comments);
+        itemDto.setCommentsCount(1L);
         itemDto.setId(item.getId());
-        Set<Item> items = Set.of(item);
-        user.setUserItems(items);
-
         ItemDto savedItem = itemService.getById(item.getId(), user.getId());
 
         assertNotNull(savedItem);
         assertEquals(itemDto, savedItem);
     }
 
+    @Test
+    void getByIdWhenItemHasManyComments() {
+        // Проверяем, что в предмет встраиваются только последние комментарии, а остальные доступны по курсору
+        em.persist(item);
+        LocalDateTime created = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 12; i++) {
+            em.persist(new Comment(null, "Comment " + i, item, user, created.plusMinutes(i)));
+        }
+
+        ItemDto savedItem = itemService.getById(item.getId(), 100L);
+
+        assertEquals(10, savedItem.getComments().size());
+        assertEquals(12L, savedItem.getCommentsCount());
+        assertEquals("Comment 11", savedItem.getComments().get(0).getText());
+        assertNotNull(savedItem.getCommentsCursor());
+
+        List<CommentDto> rest = itemService.getComments(item.getId(), savedItem.getCommentsCursor(), 10);
+
+        assertEquals(List.of("Comment 1", "Comment 0"), rest.stream()
+                .map(CommentDto::getText)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void getCommentsWhenCursorIsInvalid() {
+        em.persist(item);
+
+        IllegalStateException thrown = Assertions
+                .assertThrows(IllegalStateException.class, () ->
+                        itemService.getComments(item.getId(), "not a cursor", 10));
+
+        assertEquals("Некорректный курсор: not a cursor", thrown.getMessage());
+    }
+
     @Test
     void getItemByIdWhenItemNotFound() {
         EntityNotFoundException thrown = Assertions
@@ -212,7 +272,7 @@ class ItemServiceImplTest {
     void searchItemWhenTextIsEmpty() {
         Stream<ItemDto> emptyStream = Stream.empty();
 
-        Stream<ItemDto> returnedStream = itemService.searchItem("", 0, 10);
+        Stream<ItemDto> returnedStream = itemService.searchItem("", 0, 10, null);
 
         assertEquals((int) emptyStream.count(), (int) returnedStream.count());
     }
@@ -220,7 +280,7 @@ class ItemServiceImplTest {
     @Test
     void searchItemWhenNotFoundEqual() {
         // Проверяем сценарий, когда не найдено совпадений
-        List<ItemDto> result = itemService.searchItem("Spring", 0, 10).collect(Collectors.toList());
+        List<ItemDto> result = itemService.searchItem("Spring", 0, 10, null).collect(Collectors.toList());
 
         assertEquals(0, result.size());
     }
@@ -229,45 +289,75 @@ class ItemServiceImplTest {
     void searchItemWhenCorrect() {
         // Проверяем корректную работу
         em.persist(item);
+        itemSearchIndex.rebuild();
         itemDto.setId(item.getId());
         List<ItemDto> trueResult = List.of(itemDto);
 
-        List<ItemDto> result = itemService.searchItem("TeSt", 0, 10).collect(Collectors.toList());
+        List<ItemDto> result = itemService.searchItem("TeSt", 0, 10, null).collect(Collectors.toList());
 
         assertEquals(trueResult, result);
     }
 
     @Test
-    void getItemsWhenUserIdIs0() {
-        // Проверяем, если userId == 0
+    void searchItemWhenItemNotAvailable() {
+        // Проверяем, что недоступные предметы не занимают место на странице
+        Item unavailable = new Item();
+        unavailable.setAvailable(false);
+        unavailable.setName("Отвертка");
+        unavailable.setDescription("Аккумуляторная отвертка");
+        em.persist(unavailable);
+        Item available = new Item();
+        available.setAvailable(true);
+        available.setName("Отвертка");
+        available.setDescription("Крестовая отвертка");
+        em.persist(available);
+        itemSearchIndex.rebuild();
+
+        List<ItemDto> result = itemService.searchItem("ОТВЕРТКА", 0, 1, null).collect(Collectors.toList());
+
+        assertEquals(1, result.size());
+        assertEquals(available.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void searchItemWhenCursorIsPassed() {
+        // Следующая страница поиска начинается после id из курсора
+        Item first = new Item();
+        first.setAvailable(true);
+        first.setName("Отвертка");
+        first.setDescription("Аккумуляторная отвертка");
+        em.persist(first);
+        Item second = new Item();
+        second.setAvailable(true);
+        second.setName("Отвертка");
+        second.setDescription("Крестовая отвертка");
+        em.persist(second);
+        itemSearchIndex.rebuild();
+
+        String after = PageCursor.of(first.getId()).encode();
+        List<ItemDto> result = itemService.searchItem("отвертка", 0, 1, after).collect(Collectors.toList());
+
+        assertEquals(1, result.size());
+        assertEquals(second.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void exportItemsWhenCorrect() {
         Item item2 = new Item();
-        item2.setAvailable(true);
+        item2.setAvailable(false);
         item2.setName("TestItem2");
         item2.setDescription("Test description item2");
 
-        User user2 = new User();
-        user2.setName("TestUser2");
-        user2.setEmail("Test2@gmail.com");
-        List<ItemDto> trueResult = new ArrayList<>();
-        itemDto.setId(item.getId());
-
-        user.setUserItems(Set.of(item));
-        user2.setUserItems(Set.of(item2));
         em.persist(user);
-        em.persist(user2);
         item.setUserId(user.getId());
-        item2.setUserId(user2.getId());
+        item2.setUserId(user.getId());
         em.persist(item);
         em.persist(item2);
 
-        ItemDto itemDto2 = ItemMapper.toItemDto(item2);
-        itemDto.setId(item.getId());
-        trueResult.add(itemDto);
-        trueResult.add(itemDto2);
+        List<ItemDto> result = new ArrayList<>();
+        itemService.exportItems(result::add);
 
-        List<ItemDto> result = itemService.getItems(0L, 0, 10).collect(Collectors.toList());
-
-        assertEquals(trueResult, result);
+        assertEquals(List.of(ItemMapper.toItemDto(item), ItemMapper.toItemDto(item2)), result);
     }
 
     @Test
@@ -293,8 +383,6 @@ class ItemServiceImplTest {
         List<ItemDto> trueResult = new ArrayList<>();
         itemDto.setId(item.getId());
 
-        user.setUserItems(Set.of(item));
-        user2.setUserItems(Set.of(item2));
         em.persist(user);
         em.persist(user2);
         item.setUserId(user.getId());
@@ -316,6 +404,61 @@ class ItemServiceImplTest {
         assertEquals(trueResult, result);
     }
 
+    @Test
+    void getItemsWhenItemHasBookings() {
+        // Проверяем заполнение последнего и следующего бронирования
+        item.setUserId(user.getId());
+        em.persist(item);
+        Booking past = new Booking(null, BookingStatus.APPROVED, user, item,
+                LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(9), null);
+        Booking last = new Booking(null, BookingStatus.APPROVED, user, item,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), null);
+        Booking next = new Booking(null, BookingStatus.WAITING, user, item,
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), null);
+        Booking future = new Booking(null, BookingStatus.WAITING, user, item,
+                LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6), null);
+        em.persist(past);
+        em.persist(last);
+        em.persist(next);
+        em.persist(future);
+
+        List<ItemDto> result = itemService.getItems(user.getId(), 0, 10).collect(Collectors.toList());
+
+        assertEquals(1, result.size());
+        assertEquals(last.getId(), result.get(0).getLastBooking().getId());
+        assertEquals(next.getId(), result.get(0).getNextBooking().getId());
+    }
+
+    @Test
+    void getAvailabilityWhenBookingsOverlap() {
+        // Пересекающиеся и смежные бронирования сливаются, отклонённые не занимают время
+        item.setUserId(user.getId());
+        em.persist(item);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        em.persist(new Booking(null, BookingStatus.APPROVED, user, item, from.minusDays(1), from.plusDays(1), null));
+        em.persist(new Booking(null, BookingStatus.WAITING, user, item, from.plusDays(1), from.plusDays(2), null));
+        em.persist(new Booking(null, BookingStatus.REJECTED, user, item, from.plusDays(3), from.plusDays(4), null));
+        em.persist(new Booking(null, BookingStatus.APPROVED, user, item, from.plusDays(5), from.plusDays(7), null));
+        em.persist(new Booking(null, BookingStatus.WAITING, user, item, from.plusDays(6), from.plusDays(12), null));
+
+        ItemAvailabilityDto result = itemService.getAvailability(item.getId(), from, from.plusDays(10));
+
+        assertEquals(List.of(new IntervalDto(from, from.plusDays(2)),
+                new IntervalDto(from.plusDays(5), from.plusDays(10))), result.getBusy());
+        assertEquals(List.of(new IntervalDto(from.plusDays(2), from.plusDays(5))), result.getFree());
+    }
+
+    @Test
+    void getAvailabilityWhenPeriodIncorrect() {
+        item.setUserId(user.getId());
+        em.persist(item);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(IllegalStateException.class, () -> itemService.getAvailability(item.getId(), from, from));
+        assertThrows(IllegalStateException.class,
+                () -> itemService.getAvailability(item.getId(), from, from.plusYears(2)));
+    }
+
     @Test
     void addCommentWhenItemHasNotBookings() {
         // Проверяем случай, когда у предмета нет пробинрований
@@ -78,7 +78,7 @@ class ItemRequestControllerTest {
         itemRequestDto.setDescription("Test description");
         itemRequestDto.setId(1L);
         List<ItemRequestDto> result = List.of(itemRequestDto);
-        when(itemRequestService.getAllRequestsOtherUsers(anyInt(), anyInt(), anyLong())).thenReturn(result);
+        when(itemRequestService.getAllRequestsOtherUsers(anyInt(), anyInt(), anyLong(), any())).thenReturn(result);
 
         mockMvc.perform(get("/requests/all", 42L)
                         .header("X-Sharer-User-Id", 1))
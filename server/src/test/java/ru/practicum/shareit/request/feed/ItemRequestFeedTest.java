@@ -0,0 +1,138 @@
+package ru.practicum.shareit.request.feed;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.item.dto.ItemToRequestDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemRequestFeedTest {
+    private final LocalDateTime now = LocalDateTime.now();
+    private ItemRequestRepository itemRequestRepository;
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        itemRequestRepository = mock(ItemRequestRepository.class);
+        itemRepository = mock(ItemRepository.class);
+    }
+
+    @Test
+    void readWhenFeedCoversPage() {
+        // Запросы самого пользователя пропускаются, предметы возвращаются вместе с запросами
+        when(itemRequestRepository.findNewestItemRequests(any())).thenReturn(List.of(
+                request(3L, 1L), request(2L, 2L), request(1L, 2L)));
+        when(itemRepository.findItemsByRequests(any())).thenReturn(List.of(
+                new ItemToRequestDto(10L, "Item", "Item description", true, 2L)));
+        ItemRequestFeed feed = feed(10);
+        feed.rebuild();
+
+        ItemRequestFeed.Page page = feed.read(1L, null, 0, 10);
+
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertEquals(10L, page.getRequests().get(0).getItems().get(0).getId());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void readWhenPageRunsPastFeed() {
+        // Старые запросы вытеснены, поэтому продолжение страницы читается из базы после последнего запроса ленты
+        when(itemRequestRepository.findNewestItemRequests(any())).thenReturn(List.of(
+                request(4L, 2L), request(3L, 1L), request(2L, 2L)));
+        ItemRequestFeed feed = feed(2);
+        feed.rebuild();
+
+        ItemRequestFeed.Page page = feed.read(1L, null, 1, 2);
+
+        assertEquals(List.of(), ids(page));
+        assertEquals(PageCursor.of(created(3L), 3L), page.getNext());
+        assertEquals(0, page.getSkip());
+        assertNull(feed.read(1L, PageCursor.of(created(2L), 2L), 0, 2));
+    }
+
+    @Test
+    void readAfterAddAndItemUpdate() {
+        when(itemRequestRepository.findNewestItemRequests(any())).thenReturn(List.of(request(1L, 2L)));
+        ItemRequestFeed feed = feed(10);
+        feed.rebuild();
+
+        feed.add(request(2L, 2L));
+        feed.updateItem(new ItemToRequestDto(10L, "Item", "Item description", true, 2L));
+        feed.updateItem(new ItemToRequestDto(10L, "Renamed", "Item description", false, 2L));
+        ItemRequestFeed.Page page = feed.read(1L, PageCursor.of(created(3L), 3L), 0, 10);
+
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertEquals(1, page.getRequests().get(0).getItems().size());
+        assertEquals("Renamed", page.getRequests().get(0).getItems().get(0).getName());
+    }
+
+    @Test
+    void rebuildReplacesFeed() {
+        // Перестройка подхватывает запросы и предметы, созданные в обход ленты, например на другом экземпляре
+        when(itemRequestRepository.findNewestItemRequests(any())).thenReturn(List.of(request(1L, 2L)));
+        ItemRequestFeed feed = feed(10);
+        feed.rebuild();
+        when(itemRequestRepository.findNewestItemRequests(any())).thenReturn(List.of(
+                request(2L, 2L), request(1L, 2L)));
+        when(itemRepository.findItemsByRequests(any())).thenReturn(List.of(
+                new ItemToRequestDto(10L, "Item", "Item description", true, 1L)));
+
+        feed.rebuild();
+        ItemRequestFeed.Page page = feed.read(1L, null, 0, 10);
+
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertEquals(10L, page.getRequests().get(1).getItems().get(0).getId());
+    }
+
+    @Test
+    void rebuildWhenFeedChangesDuringLoad() {
+        // Запрос, добавленный во время загрузки, сохраняется, даже если не попал в выборку
+        when(itemRequestRepository.findNewestItemRequests(any())).thenReturn(List.of(request(1L, 2L)));
+        ItemRequestFeed feed = feed(10);
+        feed.rebuild();
+        when(itemRequestRepository.findNewestItemRequests(any())).thenAnswer(invocation -> {
+            feed.add(request(2L, 2L));
+            return List.of(request(1L, 2L));
+        });
+
+        feed.rebuild();
+
+        assertEquals(List.of(2L, 1L), ids(feed.read(1L, null, 0, 10)));
+    }
+
+    @Test
+    void readWhenNotBuilt() {
+        assertNull(feed(10).read(1L, null, 0, 10));
+    }
+
+    private ItemRequestFeed feed(int capacity) {
+        return new ItemRequestFeed(itemRequestRepository, itemRepository, new SimpleMeterRegistry(), true, capacity);
+    }
+
+    private ItemRequestDto request(Long id, Long owner) {
+        ItemRequestDto request = new ItemRequestDto(id, "Test description", owner, created(id));
+        request.setItems(new ArrayList<>());
+        return request;
+    }
+
+    private LocalDateTime created(Long id) {
+        return now.plusMinutes(id);
+    }
+
+    private List<Long> ids(ItemRequestFeed.Page page) {
+        return page.getRequests().stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
+}
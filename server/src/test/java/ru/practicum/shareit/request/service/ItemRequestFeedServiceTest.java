@@ -0,0 +1,128 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.ItemToRequestDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Чтение /requests/all через ленту вне транзакции: лента вмещает три последних запроса,
+// продолжение страницы читается из базы. Результат сверяется с чтением без ленты.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemRequestFeedServiceTest {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserResolver userResolver;
+    private final JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemRequestService feedService;
+    private ItemRequestService databaseService;
+    private User requester;
+    private User reader;
+    private final List<Long> requestIds = new ArrayList<>();
+    private Long itemId;
+
+    @BeforeEach
+    void createEntity() {
+        requester = userRepository.save(user("FeedRequester"));
+        reader = userRepository.save(user("FeedReader"));
+        // От новых к старым: r5, запрос читателя, r4, r3, r2, r1
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (int i = 1; i <= 5; i++) {
+            requestIds.add(save(requester, "Request" + i, now.minusHours(10 - i)));
+        }
+        requestIds.add(save(reader, "Own request", now.minusHours(5).minusMinutes(30)));
+        Item item = new Item();
+        item.setName("FeedItem");
+        item.setDescription("Feed item");
+        item.setAvailable(true);
+        item.setUserId(reader.getId());
+        item.setItemRequest(itemRequestRepository.getReferenceById(requestIds.get(1)));
+        itemId = itemRepository.save(item).getId();
+
+        meterRegistry = new SimpleMeterRegistry();
+        ItemRequestFeed feed = new ItemRequestFeed(itemRequestRepository, itemRepository, meterRegistry, true, 3);
+        feed.rebuild();
+        feedService = new ItemRequestServiceImpl(itemRequestRepository, itemRepository, userResolver, feed);
+        databaseService = new ItemRequestServiceImpl(itemRequestRepository, itemRepository, userResolver,
+                new ItemRequestFeed(itemRequestRepository, itemRepository, new SimpleMeterRegistry(), false, 3));
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from items where id = ?", itemId);
+        for (Long requestId : requestIds) {
+            jdbcTemplate.update("delete from item_requests where id = ?", requestId);
+        }
+        jdbcTemplate.update("delete from users where id in (?, ?)", requester.getId(), reader.getId());
+    }
+
+    @Test
+    void getAllRequestsOtherUsersWhenPageRunsPastFeed() {
+        // В ленте r5 и r4 (запрос читателя пропускается), r3 и r2 дочитываются из базы вместе с предметом
+        List<ItemRequestDto> result = feedService.getAllRequestsOtherUsers(1, 3, reader.getId(), null);
+
+        assertEquals(List.of(requestIds.get(3), requestIds.get(2), requestIds.get(1)), ids(result));
+        assertEquals(List.of(itemId), result.get(2).getItems().stream()
+                .map(ItemToRequestDto::getId).collect(Collectors.toList()));
+        assertEquals(ids(databaseService.getAllRequestsOtherUsers(1, 3, reader.getId(), null)), ids(result));
+        assertEquals(1.0, partialHits());
+    }
+
+    @Test
+    void getAllRequestsOtherUsersWhenFromSkipsPastFeed() {
+        // Смещение больше числа чужих запросов в ленте: остаток пропуска переносится в запрос к базе
+        List<ItemRequestDto> result = feedService.getAllRequestsOtherUsers(3, 2, reader.getId(), null);
+
+        assertEquals(List.of(requestIds.get(1), requestIds.get(0)), ids(result));
+        assertEquals(ids(databaseService.getAllRequestsOtherUsers(3, 2, reader.getId(), null)), ids(result));
+        assertEquals(1.0, partialHits());
+    }
+
+    private double partialHits() {
+        return meterRegistry.counter("item.request.feed.reads", "result", "partial").count();
+    }
+
+    private Long save(User owner, String description, LocalDateTime created) {
+        ItemRequest request = new ItemRequest();
+        request.setDescription(description);
+        request.setOwnerId(owner.getId());
+        request.setCreated(created);
+        return itemRequestRepository.save(request).getId();
+    }
+
+    private static List<Long> ids(List<ItemRequestDto> requests) {
+        return requests.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@gmail.com");
+        return user;
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import ru.practicum.shareit.user.User;
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -98,11 +101,38 @@ class ItemRequestServiceImplTest {
         assertEquals(trueResult.get(0).getOwner(), result.get(0).getOwner());
     }
 
+    @Test
+    void getOwnRequestsByUserWhenRequestHasItems() {
+        // Проверяем, что к запросам подгружаются предложенные предметы
+        itemRequest.setOwnerId(user.getId());
+        em.persist(itemRequest);
+        ItemRequest itemRequest2 = new ItemRequest();
+        itemRequest2.setDescription("Test description 2");
+        itemRequest2.setOwnerId(user.getId());
+        em.persist(itemRequest2);
+        item.setItemRequest(itemRequest);
+        item.setUserId(user.getId());
+
+        List<ItemRequestDto> result = itemRequestService.getOwnRequestsByUser(user.getId());
+
+        assertEquals(2, result.size());
+        ItemRequestDto withItems = result.stream()
+                .filter(request -> request.getId().equals(itemRequest.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, withItems.getItems().size());
+        assertEquals(item.getId(), withItems.getItems().get(0).getId());
+        assertEquals(itemRequest.getId(), withItems.getItems().get(0).getRequestId());
+        assertTrue(result.stream()
+                .filter(request -> request.getId().equals(itemRequest2.getId()))
+                .allMatch(request -> request.getItems().isEmpty()));
+    }
+
     @Test
     void getAllRequestsOtherUsersWhenUserNotFound() {
         EntityNotFoundException thrown = Assertions
                 .assertThrows(EntityNotFoundException.class, () ->
-                        itemRequestService.getAllRequestsOtherUsers(0, 10, 100L));
+                        itemRequestService.getAllRequestsOtherUsers(0, 10, 100L, null));
 
         assertEquals("Пользователь не найден", thrown.getMessage());
     }
@@ -118,12 +148,51 @@ class ItemRequestServiceImplTest {
         em.persist(itemRequest);
         List<ItemRequestDto> trueResult = List.of(ItemRequestMapper.toItemRequestDto(itemRequest));
 
-        List<ItemRequestDto> result = itemRequestService.getAllRequestsOtherUsers(0, 10, user.getId());
+        List<ItemRequestDto> result = itemRequestService.getAllRequestsOtherUsers(0, 10, user.getId(), null);
 
         assertEquals(trueResult.size(), result.size());
         assertEquals(trueResult.get(0).getOwner(), result.get(0).getOwner());
     }
 
+    @Test
+    void getAllRequestsOtherUsersWhenPageSizeGrows() {
+        // Число запросов к базе не зависит от размера страницы: проверка пользователя,
+        // страница запросов и предметы всех запросов страницы
+        User user2 = new User();
+        user2.setName("Test2User");
+        user2.setEmail("Test2@gmail.com");
+        em.persist(user2);
+        for (int i = 0; i < 5; i++) {
+            ItemRequest request = new ItemRequest();
+            request.setDescription("Test description " + i);
+            request.setOwnerId(user2.getId());
+            request.setCreated(LocalDateTime.now().minusMinutes(i));
+            em.persist(request);
+            for (int j = 0; j < 2; j++) {
+                Item requestItem = new Item();
+                requestItem.setAvailable(true);
+                requestItem.setName("TestItem " + i + j);
+                requestItem.setDescription("Test description");
+                requestItem.setUserId(user.getId());
+                requestItem.setItemRequest(request);
+                em.persist(requestItem);
+            }
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        for (int size : new int[]{1, 5}) {
+            long before = statistics.getPrepareStatementCount();
+
+            List<ItemRequestDto> result = itemRequestService.getAllRequestsOtherUsers(0, size, user.getId(), null);
+
+            assertEquals(3, statistics.getPrepareStatementCount() - before);
+            assertEquals(size, result.size());
+            result.forEach(request -> assertEquals(2, request.getItems().size()));
+        }
+    }
+
     @Test
     void getRequestByIdWhenUserNotFound() {
         // Проверяем сценарий, когда пользователь не найден
@@ -11,16 +11,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.PageCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -86,7 +92,11 @@ class UserControllerTest {
         userDto.setId(1L);
         List<UserDto> result = List.of(userDto);
 
-        when(userService.getAllUsers()).thenReturn(result.stream());
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(1);
+            result.forEach(consumer);
+            return null;
+        }).when(userService).exportUsers(isNull(), any());
 
         mockMvc.perform(get("/users", 42L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -95,6 +105,37 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].id", is(userDto.getId()), Long.class));
     }
 
+    @Test
+    void getUsersWhenPageIsFull() throws Exception {
+        userDto = new UserDto(1L, "Test", "test");
+
+        when(userService.getUsers("MA", 1)).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .param("after", "MA")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", PageCursor.of(1L).encode()))
+                .andExpect(jsonPath("$[0].id", is(userDto.getId()), Long.class));
+    }
+
+    @Test
+    void exportUsers() throws Exception {
+        List<UserDto> result = List.of(new UserDto(1L, "Test", "test"), new UserDto(2L, "Other", "other"));
+
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(1);
+            result.forEach(consumer);
+            return null;
+        }).when(userService).exportUsers(isNull(), any());
+
+        mockMvc.perform(get("/users")
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":1,\"name\":\"Test\",\"email\":\"test\"}\n" +
+                        "{\"id\":2,\"name\":\"Other\",\"email\":\"other\"}\n"));
+    }
+
     @Test
     void getUserById() throws Exception {
         userDto = new UserDto();
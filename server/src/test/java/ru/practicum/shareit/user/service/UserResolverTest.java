@@ -0,0 +1,93 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserResolverTest {
+    private UserRepository userRepository;
+    private UserExistenceCache userExistenceCache;
+    private UserResolver userResolver;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userExistenceCache = new UserExistenceCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10),
+                100, Duration.ofMinutes(1));
+        userResolver = new UserResolver(userRepository, userExistenceCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getUserWhenCalledTwiceInRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user()));
+
+        assertEquals("TestUser", userResolver.getUser(1L).getName());
+        assertEquals("TestUser", userResolver.getUser(1L).getName());
+        userResolver.checkExists(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, never()).existsById(1L);
+    }
+
+    @Test
+    void checkExistsWhenUserIsKnown() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        userResolver.checkExists(1L);
+        userResolver.checkExists(1L);
+
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void checkExistsWhenUserIsUnknown() {
+        when(userRepository.existsById(100L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> userResolver.checkExists(100L));
+        assertThrows(EntityNotFoundException.class, () -> userResolver.getUser(100L));
+
+        verify(userRepository, times(1)).existsById(100L);
+        verify(userRepository, never()).findById(100L);
+    }
+
+    @Test
+    void checkExistsWhenUserIsAddedOrDeleted() {
+        when(userRepository.existsById(1L)).thenReturn(false, true, false);
+
+        assertThrows(EntityNotFoundException.class, () -> userResolver.checkExists(1L));
+        userExistenceCache.added(1L);
+        userResolver.checkExists(1L);
+        userExistenceCache.deleted(1L);
+        assertThrows(EntityNotFoundException.class, () -> userResolver.checkExists(1L));
+
+        verify(userRepository, times(3)).existsById(1L);
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("TestUser");
+        user.setEmail("user@gmail.com");
+        return user;
+    }
+}
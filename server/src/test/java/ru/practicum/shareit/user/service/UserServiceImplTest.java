@@ -7,21 +7,26 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.PageCursor;
+import ru.practicum.shareit.booking.stats.BookingStatsCounter;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -54,7 +59,8 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, mock(BookingStatsCounter.class),
+                mock(UserExistenceCache.class));
     }
 
     @Test
@@ -151,18 +157,36 @@ class UserServiceImplTest {
     }
 
     @Test
-    void getAllUsers() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+    void exportUsers() {
+        when(userRepository.streamUserDtosAfter(0L)).thenReturn(Stream.of(userDto));
         List<UserDto> trueResult = List.of(userDto);
 
-        List<UserDto> result = userService.getAllUsers().collect(Collectors.toList());
+        List<UserDto> result = new ArrayList<>();
+        userService.exportUsers(null, result::add);
 
         assertEquals(trueResult, result);
     }
 
+    @Test
+    void getUsersWhenCursorIsPassed() {
+        when(userRepository.findUsersAfter(eq(1L), any())).thenReturn(List.of(userDto));
+
+        List<UserDto> result = userService.getUsers(PageCursor.of(1L).encode(), 10);
+
+        assertEquals(List.of(userDto), result);
+    }
+
+    @Test
+    void getUsersWhenCursorIsInvalid() {
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                userService.getUsers("!", 10));
+
+        assertEquals("Некорректный курсор: !", thrown.getMessage());
+    }
+
     @Test
     void getUserItemsWhenUserNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.findWithItemsById(anyLong())).thenReturn(Optional.empty());
 
         EntityNotFoundException thrown = Assertions
                 .assertThrows(EntityNotFoundException.class, () ->
@@ -189,7 +213,7 @@ class UserServiceImplTest {
         items.add(item2);
         user.setUserItems(items);
 
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.findWithItemsById(user.getId())).thenReturn(Optional.of(user));
 
         Set<Item> returnedItems = userService.getUserItems(user.getId());
 